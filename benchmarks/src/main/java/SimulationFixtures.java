@@ -0,0 +1,212 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+import simulation.bench.EngineFixtures;
+
+/**
+ * Builds the benchmark workloads against the engine classes. Lives in the default
+ * package so it can reach package-private members such as simulateTurn.
+ */
+public class SimulationFixtures implements EngineFixtures {
+    private static final int BOUND = 100;
+    private static final double ADJACENT_RADIUS = 5.0;
+    private static final int TEAM_SIZE = 11;
+    private static final int SAMPLES = 64; // Positions cycled through by the micro benchmarks
+    private static final int CHECKED_MOVES = 2000; // voronoiMove moves compared against a rebuild
+
+    static SoccerStrategy strategy(String name) {
+        switch (name) {
+            case "ActivePressing": return new ActivePressingStrategy();
+            case "ShortPass": return new ShortPassStrategy();
+            case "LongPass": return new LongPassStrategy();
+            case "RandomPass": return new RandomPassStrategy();
+            case "BallControl": return new BallControlStrategy();
+            case "ShortCarrying": return new ShortCarryingStrategy();
+            case "MiddleCarrying": return new MiddleCarryingStrategy();
+            case "LongCarrying": return new LongCarryingStrategy();
+            case "RandomCarrying": return new RandomCarryingStrategy();
+            case "VoronoiInspired": return new VoronoiInspiredStrategy();
+            case "VoronoiCarrying": return new VoronoiCarryingStrategy();
+            default: throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    private static SoccerSimulation newSimulation(int numTeams, long seed) {
+        SoccerSimulation simulation = new SoccerSimulation(BOUND, ADJACENT_RADIUS, numTeams);
+        simulation.setRandom(new SimulationRandom(seed));
+        simulation.initializeTeams(Collections.nCopies(numTeams, TEAM_SIZE), SoccerSimulation.StartingScenario.KICK_OFF);
+        return simulation;
+    }
+
+    @Override
+    public BooleanSupplier simulateIteration(String strategy, int numTeams, long seed) {
+        SoccerSimulation simulation = newSimulation(numTeams, seed);
+        List<SoccerStrategy> strategies = Collections.nCopies(numTeams, strategy(strategy));
+        List<Integer> teamSizes = Collections.nCopies(numTeams, TEAM_SIZE);
+        return () -> {
+            boolean goal = simulation.simulateIteration(strategies);
+            if (goal) {
+                simulation.initializeTeams(teamSizes, SoccerSimulation.StartingScenario.KICK_OFF);
+            }
+            return goal;
+        };
+    }
+
+    @Override
+    public IntSupplier runMultiTeamSimulation(String strategy, int numTeams, long seed) {
+        SoccerSimulation simulation = newSimulation(numTeams, seed);
+        List<SoccerStrategy> strategies = Collections.nCopies(numTeams, strategy(strategy));
+        return () -> {
+            // Same seed every call, so every invocation plays the same match
+            simulation.setRandom(new SimulationRandom(seed));
+            return simulation.runMultiTeamSimulation(strategies, SoccerSimulation.StartingScenario.KICK_OFF, 1000).totalIterations;
+        };
+    }
+
+    @Override
+    public BooleanSupplier canPass(int numTeams, long seed) {
+        SimulationRandom random = new SimulationRandom(seed);
+        List<Vertex[]> pairs = new ArrayList<>();
+        List<List<Vertex>> opponents = new ArrayList<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            SoccerSimulation simulation = newSimulation(numTeams, random.nextSeed());
+            List<Vertex> players = simulation.players;
+            Vertex passer = players.get(random.nextInt(players.size()));
+            List<Vertex> teammates = simulation.getTeammates(passer);
+            pairs.add(new Vertex[] {passer, teammates.get(random.nextInt(teammates.size()))});
+            opponents.add(simulation.getOpponents(passer));
+        }
+        int[] next = {0};
+        return () -> {
+            int i = next[0]++ & (SAMPLES - 1);
+            Vertex[] pair = pairs.get(i);
+            return SoccerUtil.canPass(pair[0], pair[1], opponents.get(i), ADJACENT_RADIUS);
+        };
+    }
+
+    @Override
+    public BooleanSupplier isOffside(long seed) {
+        SimulationRandom random = new SimulationRandom(seed);
+        List<Vertex[]> samples = new ArrayList<>();
+        List<List<Vertex>> teammates = new ArrayList<>();
+        List<List<Vertex>> opponents = new ArrayList<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            SoccerSimulation simulation = newSimulation(2, random.nextSeed());
+            Vertex ballController = simulation.ballController;
+            List<Vertex> team = simulation.getTeammates(ballController);
+            Vertex player = team.get(random.nextInt(team.size()));
+            // Push the player into the attacking half so the defender ordering is reached
+            player.y = (ballController.team == 'A' ? 1 : -1) * random.nextDouble() * BOUND;
+            samples.add(new Vertex[] {player, ballController});
+            teammates.add(team);
+            opponents.add(simulation.getOpponents(ballController));
+        }
+        int[] next = {0};
+        return () -> {
+            int i = next[0]++ & (SAMPLES - 1);
+            Vertex[] sample = samples.get(i);
+            return SoccerUtil.isOffside(sample[0], teammates.get(i), opponents.get(i), sample[1], BOUND);
+        };
+    }
+
+    @Override
+    public BooleanSupplier offsideLine(long seed) {
+        SimulationRandom random = new SimulationRandom(seed);
+        List<SoccerSimulation> simulations = new ArrayList<>();
+        List<Vertex> players = new ArrayList<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            SoccerSimulation simulation = newSimulation(2, random.nextSeed());
+            Vertex ballController = simulation.ballController;
+            List<Vertex> team = simulation.getTeammates(ballController);
+            Vertex player = team.get(random.nextInt(team.size()));
+            // Same placement as isOffside, but through a move so the simulation's indexes see it
+            double y = (ballController.team == 'A' ? 1 : -1) * random.nextDouble() * BOUND;
+            simulation.movePlayer(player, 0, y - player.y);
+            simulations.add(simulation);
+            players.add(player);
+        }
+        int[] next = {0};
+        return () -> {
+            int i = next[0]++ & (SAMPLES - 1);
+            return simulations.get(i).isOffside(players.get(i));
+        };
+    }
+
+    @Override
+    public DoubleSupplier voronoiArea(int numTeams, long seed) {
+        SoccerSimulation simulation = newSimulation(numTeams, seed);
+        VoronoiInspiredStrategy strategy = new VoronoiInspiredStrategy();
+        List<Vertex> players = simulation.players;
+        int[] next = {0};
+        return () -> {
+            Vertex player = players.get(next[0]++ % players.size());
+            return strategy.calculateVoronoiArea(simulation, player,
+                    simulation.getTeammates(player), simulation.getOpponents(player));
+        };
+    }
+
+    @Override
+    public DoubleSupplier voronoiMove(int numTeams, long seed) {
+        SimulationRandom random = new SimulationRandom(seed);
+        List<Vertex> first = new ArrayList<>();
+        List<Vertex> second = new ArrayList<>();
+        for (int t = 0; t < numTeams; t++) {
+            for (int i = 0; i < TEAM_SIZE; i++) {
+                (t == 0 ? first : second).add(new Vertex(0, 0, (char) ('A' + t)));
+            }
+        }
+        List<Vertex> sites = new ArrayList<>(first);
+        sites.addAll(second);
+        for (Vertex site : sites) {
+            placeRandomly(site, sites, random);
+        }
+        VoronoiDiagram diagram = new VoronoiDiagram(-100, -BOUND, 100, BOUND);
+        diagram.build(first, second);
+        VoronoiDiagram rebuilt = new VoronoiDiagram(-100, -BOUND, 100, BOUND);
+        for (int move = 0; move < CHECKED_MOVES; move++) {
+            int site = random.nextInt(sites.size());
+            placeRandomly(sites.get(site), sites, random);
+            diagram.move(site, sites.get(site).x, sites.get(site).y);
+            rebuilt.build(first, second);
+            if (!diagram.sameCells(rebuilt, 1e-6)) {
+                throw new IllegalStateException("VoronoiDiagram.move disagrees with build after move " + move
+                        + " of site " + site);
+            }
+        }
+        return () -> {
+            int site = random.nextInt(sites.size());
+            Vertex player = sites.get(site);
+            placeRandomly(player, sites, random);
+            diagram.move(site, player.x, player.y);
+            return diagram.teamArea(player.team);
+        };
+    }
+
+    // Puts the site somewhere in the field, or on top of another site one time in four
+    private static void placeRandomly(Vertex site, List<Vertex> sites, SimulationRandom random) {
+        if (random.nextInt(4) == 0) {
+            Vertex other = sites.get(random.nextInt(sites.size()));
+            site.x = other.x;
+            site.y = other.y;
+        } else {
+            site.x = (random.nextDouble() * 2 - 1) * 100;
+            site.y = (random.nextDouble() * 2 - 1) * BOUND;
+        }
+    }
+
+    @Override
+    public Runnable quidditchTurn(long seed) {
+        SimulationRandom seeds = new SimulationRandom(seed);
+        QuidditchSimulation[] match = {new QuidditchSimulation(new SimulationRandom(seeds.nextSeed()))};
+        return () -> {
+            if (match[0].isGameOver()) {
+                match[0] = new QuidditchSimulation(new SimulationRandom(seeds.nextSeed()));
+            }
+            match[0].simulateTurn();
+        };
+    }
+}
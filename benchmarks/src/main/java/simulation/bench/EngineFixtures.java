@@ -0,0 +1,48 @@
+package simulation.bench;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Workloads the benchmarks drive. The engine lives in the default package, which JMH
+ * benchmarks cannot import, so a default-package implementation builds each workload
+ * and hands it back behind a plain functional interface.
+ */
+public interface EngineFixtures {
+    String IMPLEMENTATION = "SimulationFixtures";
+
+    // One simulateIteration tick per call for teams of the given strategy
+    BooleanSupplier simulateIteration(String strategy, int numTeams, long seed);
+
+    // One full runMultiTeamSimulation match per call; returns its iteration count
+    IntSupplier runMultiTeamSimulation(String strategy, int numTeams, long seed);
+
+    // SoccerUtil.canPass over a rotating set of passer/receiver pairs
+    BooleanSupplier canPass(int numTeams, long seed);
+
+    // SoccerUtil.isOffside over a rotating set of players
+    BooleanSupplier isOffside(long seed);
+
+    // SoccerSimulation.isOffside, answered from the offside line, over the same players
+    BooleanSupplier offsideLine(long seed);
+
+    // VoronoiInspiredStrategy.calculateVoronoiArea over a rotating set of players
+    DoubleSupplier voronoiArea(int numTeams, long seed);
+
+    // One VoronoiDiagram.move of a random site per call, returning its team's area. Some
+    // moves land on another site. The first moves are checked against a fresh build first,
+    // so a wrong incremental update fails setup instead of being timed
+    DoubleSupplier voronoiMove(int numTeams, long seed);
+
+    // One QuidditchSimulation turn per call, starting a new match when one ends
+    Runnable quidditchTurn(long seed);
+
+    static EngineFixtures load() {
+        try {
+            return (EngineFixtures) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load " + IMPLEMENTATION, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package simulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one full SoccerSimulation.runMultiTeamSimulation match, replayed from the same seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchBenchmark {
+    @Param({"ActivePressing", "BallControl"})
+    public String strategy;
+
+    @Param({"2", "6"})
+    public int numTeams;
+
+    @Param("42")
+    public long seed;
+
+    private IntSupplier match;
+
+    @Setup
+    public void setUp() {
+        match = EngineFixtures.load().runMultiTeamSimulation(strategy, numTeams, seed);
+    }
+
+    @Benchmark
+    public int runMultiTeamSimulation() {
+        return match.getAsInt();
+    }
+}
@@ -0,0 +1,53 @@
+package simulation.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QuidditchSimulation turns per second. The turn log is still formatted but written to
+ * a discarding stream, so the numbers include the cost of building it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuidditchBenchmark {
+    @Param("42")
+    public long seed;
+
+    private Runnable turn;
+    private PrintStream out;
+
+    @Setup
+    public void setUp() {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        turn = EngineFixtures.load().quidditchTurn(seed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public void simulateTurn() {
+        turn.run();
+    }
+}
@@ -0,0 +1,61 @@
+package simulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SoccerUtil.canPass and SoccerUtil.isOffside over a fixed set of seeded positions, and
+ * SoccerSimulation.isOffside answering the same offside checks from its offside line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoccerUtilBenchmark {
+    @Param({"2", "6"})
+    public int numTeams;
+
+    @Param("42")
+    public long seed;
+
+    private BooleanSupplier canPass;
+    private BooleanSupplier isOffside;
+    private BooleanSupplier offsideLine;
+
+    @Setup
+    public void setUp() {
+        EngineFixtures fixtures = EngineFixtures.load();
+        canPass = fixtures.canPass(numTeams, seed);
+        isOffside = fixtures.isOffside(seed); // Offside is only defined for teams A and B
+        offsideLine = fixtures.offsideLine(seed);
+    }
+
+    @Benchmark
+    public boolean canPass() {
+        return canPass.getAsBoolean();
+    }
+
+    @Benchmark
+    public boolean isOffside() {
+        return isOffside.getAsBoolean();
+    }
+
+    @Benchmark
+    public boolean offsideLine() {
+        return offsideLine.getAsBoolean();
+    }
+}
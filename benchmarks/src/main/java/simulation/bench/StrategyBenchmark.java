@@ -0,0 +1,49 @@
+package simulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ticks per second of SoccerSimulation.simulateIteration with every team on one strategy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StrategyBenchmark {
+    @Param({"ActivePressing", "ShortPass", "LongPass", "RandomPass", "BallControl", "ShortCarrying",
+            "MiddleCarrying", "LongCarrying", "RandomCarrying", "VoronoiInspired", "VoronoiCarrying"})
+    public String strategy;
+
+    @Param({"2", "6"})
+    public int numTeams;
+
+    @Param("42")
+    public long seed;
+
+    private BooleanSupplier tick;
+
+    @Setup
+    public void setUp() {
+        tick = EngineFixtures.load().simulateIteration(strategy, numTeams, seed);
+    }
+
+    @Benchmark
+    public boolean simulateIteration() {
+        return tick.getAsBoolean();
+    }
+}
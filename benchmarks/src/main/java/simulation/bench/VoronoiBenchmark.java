@@ -0,0 +1,54 @@
+package simulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * VoronoiInspiredStrategy.calculateVoronoiArea for each player of a kick-off layout in turn,
+ * and VoronoiDiagram.move of random sites, once its updates have been checked against rebuilds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoronoiBenchmark {
+    @Param({"2", "6"})
+    public int numTeams;
+
+    @Param("42")
+    public long seed;
+
+    private DoubleSupplier area;
+    private DoubleSupplier move;
+
+    @Setup
+    public void setUp() {
+        EngineFixtures fixtures = EngineFixtures.load();
+        area = fixtures.voronoiArea(numTeams, seed);
+        move = fixtures.voronoiMove(numTeams, seed);
+    }
+
+    @Benchmark
+    public double calculateVoronoiArea() {
+        return area.getAsDouble();
+    }
+
+    @Benchmark
+    public double moveSite() {
+        return move.getAsDouble();
+    }
+}
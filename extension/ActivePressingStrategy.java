@@ -1,4 +1,3 @@
-import java.util.Comparator;
 import java.util.List;
 /**
  * Active Pressing Strategy: Aggressive defense in the opponent's half.
@@ -17,46 +16,31 @@ public class ActivePressingStrategy extends SoccerStrategy {
         
         // If we have the ball
         if (ballController.team == (teammates.get(0).team)) {
-            // Move the two players closest to opponent goal forward
-            List<Vertex> forwardPlayers = teammates.stream()
-                .filter(p -> p != ballController)
-                .sorted(Comparator.comparingDouble(p -> 
-                    simulation.distanceToOpponentGoal(p)))
-                .limit(2)
-                .toList();
+            // Move the two players closest to opponent goal forward, both picked before either moves
+            int first = indexClosestToOpponentGoal(simulation, teammates, ballController, null);
+            Vertex forward = first >= 0 ? teammates.get(first) : null;
+            int second = first >= 0 ? indexClosestToOpponentGoal(simulation, teammates, ballController, forward) : -1;
+            Vertex nextForward = second >= 0 ? teammates.get(second) : null;
             
-            for (Vertex player : forwardPlayers) {
-                simulation.movePlayerTowardsOpponentGoal(player);
+            if (forward != null) {
+                simulation.movePlayerTowardsOpponentGoal(forward);
+            }
+            if (nextForward != null) {
+                simulation.movePlayerTowardsOpponentGoal(nextForward);
             }
             
             // Other players should maintain formation but avoid opponents
-            for (Vertex player : teammates) {
-                if (!forwardPlayers.contains(player) && player != ballController) {
+            for (int i = 0; i < teammates.size(); i++) {
+                Vertex player = teammates.get(i);
+                if (player != forward && player != nextForward && player != ballController) {
                     simulation.movePlayerAwayFromOpponents(player, opponents);
                 }
             }
             
             // Determine action for ball controller
-            String action = determineAction(simulation, ballController, teammates, opponents);
-            
-            switch (action) {
-                case "pass":
-                    Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-                    if (target != null) {
-                        simulation.pass(ballController, target);
-                    }
-                    break;
-                case "shoot":
-                    simulation.shoot(ballController);
-                    break;
-                case "breakthrough":
-                    simulation.breakthrough(ballController);
-                    break;
-                case "move":
-                default:
-                    simulation.movePlayerTowardsOpponentGoal(ballController);
-                    break;
-            }
+            Decision decision = beginDecision(simulation, ballController);
+            decision.action = decideAction(simulation, ballController, teammates, opponents);
+            perform(simulation, ballController, decision, teammates, opponents);
         } 
         // If opponents have the ball
         else {
@@ -70,13 +54,10 @@ public class ActivePressingStrategy extends SoccerStrategy {
                     simulation.movePlayerTowards(player, ballController);
                 }
             }else {
-                for(Vertex player : teammates){
+                for (int i = 0; i < teammates.size(); i++) {
+                    Vertex player = teammates.get(i);
                     // In our own half, have the closest player press aggressively
-                    if (player == teammates.stream()
-                            .min(Comparator.comparingDouble(p -> 
-                                Math.sqrt(Math.pow(p.x - ballController.x, 2) + 
-                                          Math.pow(p.y - ballController.y, 2))))
-                            .orElse(null)) {
+                    if (i == indexNearestInPlane(teammates, ballController)) {
                         simulation.movePlayerTowards(player, ballController);
                     } else {
                         // Other players maintain defensive positions
@@ -89,37 +70,56 @@ public class ActivePressingStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        // Check if there are adjacent opponents
-        List<Vertex> adjacentOpponents = simulation.getAdjacentOpponents(ballController);
-        
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
         // If we're close to goal, try to shoot
         if (simulation.distanceToOpponentGoal(ballController) < SoccerSimulation.penaltyAreaDistance) {
-            return "shoot";
+            return Action.SHOOT;
         }
-        if (!adjacentOpponents.isEmpty()) {
+        // Check if there are adjacent opponents
+        if (simulation.hasAdjacentOpponents(ballController)) {
             // 50% chance to try breakthrough, otherwise pass
-            return Math.random() < 0.5 ? "breakthrough" : "pass";
+            return simulation.getRandom().nextDouble() < 0.5 ? Action.BREAKTHROUGH : Action.PASS;
         }
         // If we have a good passing option and we're in our own half
         if (simulation.distanceToOwnGoal(ballController) < simulation.bound) {
-            Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-            if (target != null) {
-                return "pass";
+            if (passTargetSlot(simulation, ballController, teammates, opponents) >= 0) {
+                return Action.PASS;
             }
-        }return "move";
+        }return Action.MOVE;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                       List<Vertex> teammates, List<Vertex> opponents) {
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
         // In pressing strategy, we prefer forward passes to players in advanced positions
-        return teammates.stream()
-            .filter(p -> p != ballController)
-            .filter(p -> simulation.distanceToOpponentGoal(p) < simulation.distanceToOpponentGoal(ballController))
-            .filter(p -> simulation.canPass(ballController, p))
-            .min(Comparator.comparingDouble(p -> 
-                simulation.distanceToOpponentGoal(p) + 
-                simulation.countOpponentsInSocialRadius(p, simulation.calculateSocialRadius(p)) * 10))
-            .orElse(null);
+        double controllerDistance = simulation.distanceToOpponentGoal(ballController);
+        int best = -1;
+        double bestScore = 0;
+        for (int i = 0; i < teammates.size(); i++) {
+            Vertex p = teammates.get(i);
+            if (p == ballController
+                    || !(simulation.distanceToOpponentGoal(p) < controllerDistance)
+                    || !simulation.canPass(ballController, p)) {
+                continue;
+            }
+            double score = simulation.distanceToOpponentGoal(p) + 
+                simulation.countOpponentsInSocialRadius(p, simulation.calculateSocialRadius(p)) * 10;
+            if (best < 0 || Double.compare(score, bestScore) < 0) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
@@ -1,6 +1,4 @@
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Ball Control Strategy: Maximizing ball possession by passing to nearby teammates,
@@ -19,46 +17,31 @@ public class BallControlStrategy extends SoccerStrategy {
         
         // If we have the ball
         if (ballController.team == teammates.get(0).team) {
-            // Move the two players closest to opponent goal forward
-            List<Vertex> forwardPlayers = teammates.stream()
-                .filter(p -> p != ballController)
-                .sorted(Comparator.comparingDouble(p -> 
-                    simulation.distanceToOpponentGoal(p)))
-                .limit(2)
-                .collect(Collectors.toList());
+            // Move the two players closest to opponent goal forward, both picked before either moves
+            int first = indexClosestToOpponentGoal(simulation, teammates, ballController, null);
+            Vertex forward = first >= 0 ? teammates.get(first) : null;
+            int second = first >= 0 ? indexClosestToOpponentGoal(simulation, teammates, ballController, forward) : -1;
+            Vertex nextForward = second >= 0 ? teammates.get(second) : null;
             
-            for (Vertex player : forwardPlayers) {
-                simulation.movePlayerTowardsOpponentGoal(player);
+            if (forward != null) {
+                simulation.movePlayerTowardsOpponentGoal(forward);
+            }
+            if (nextForward != null) {
+                simulation.movePlayerTowardsOpponentGoal(nextForward);
             }
             
             // Other players should maintain formation but avoid opponents
-            for (Vertex player : teammates) {
-                if (!forwardPlayers.contains(player) && player != ballController) {
+            for (int i = 0; i < teammates.size(); i++) {
+                Vertex player = teammates.get(i);
+                if (player != forward && player != nextForward && player != ballController) {
                     simulation.movePlayerAwayFromOpponents(player, opponents);
                 }
             }
             
             // Determine action for ball controller
-            String action = determineAction(simulation, ballController, teammates, opponents);
-            
-            switch (action) {
-                case "pass":
-                    Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-                    if (target != null) {
-                        simulation.pass(ballController, target);
-                    }
-                    break;
-                case "shoot":
-                    simulation.shoot(ballController);
-                    break;
-                case "breakthrough":
-                    simulation.breakthrough(ballController);
-                    break;
-                case "move":
-                default:
-                    simulation.movePlayerTowardsOpponentGoal(ballController);
-                    break;
-            }
+            Decision decision = beginDecision(simulation, ballController);
+            decision.action = decideAction(simulation, ballController, teammates, opponents);
+            perform(simulation, ballController, decision, teammates, opponents);
         } 
         // If opponents have the ball
         else {
@@ -78,74 +61,88 @@ public class BallControlStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        // Check if there are adjacent opponents
-        List<Vertex> adjacentOpponents = simulation.getAdjacentOpponents(ballController);
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        double distanceToGoal = simulation.distanceToOpponentGoal(ballController);
         
         // If we're close to goal and have a clear shot, try to shoot
-        if (simulation.distanceToOpponentGoal(ballController) < SoccerSimulation.penaltyAreaDistance * 0.7 &&
+        if (distanceToGoal < SoccerSimulation.penaltyAreaDistance * 0.7 &&
             simulation.countOpponentsInPenaltyArea(ballController.team) < 3) {
-            return "shoot";
+            return Action.SHOOT;
         }
         
         // If there are adjacent opponents
-        if (!adjacentOpponents.isEmpty()) {
+        if (simulation.hasAdjacentOpponents(ballController)) {
             // In ball control strategy, we prefer passing over breakthrough
-            return "pass";
+            return Action.PASS;
         }
         
         // If we have a good passing option
-        Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-        if (target != null) {
-            return "pass";
+        if (passTargetSlot(simulation, ballController, teammates, opponents) >= 0) {
+            return Action.PASS;
         }
         
         // If close to goal and no good passing options
-        if (simulation.distanceToOpponentGoal(ballController) < SoccerSimulation.penaltyAreaDistance * 1.5) {
-            return "shoot";
+        if (distanceToGoal < SoccerSimulation.penaltyAreaDistance * 1.5) {
+            return Action.SHOOT;
         }
         
         // Otherwise, move forward
-        return "move";
+        return Action.MOVE;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                       List<Vertex> teammates, List<Vertex> opponents) {
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
         // For BallControlStrategy, we prioritize passes that are guaranteed to succeed (socialCount == 0)
         // First, look for targets with socialCount == 0
-        List<Vertex> guaranteedTargets = teammates.stream()
-            .filter(p -> p != ballController)
-            .filter(p -> simulation.canPass(ballController, p))
-            .filter(p -> {
-                double socialRadius = simulation.calculateSocialRadius(p);
-                int socialCount = simulation.countOpponentsInSocialRadius(p, socialRadius);
-                return socialCount == 0; // Only consider targets with guaranteed success
-            })
-            .collect(Collectors.toList());
-        
-        // If we have guaranteed targets, choose the best one based on position
-        if (!guaranteedTargets.isEmpty()) {
-            return guaranteedTargets.stream()
-                .min(Comparator.comparingDouble(p -> {
-                    // Prefer targets that are closer to opponent's goal but not too far from ball controller
-                    double distanceToGoal = simulation.distanceToOpponentGoal(p);
-                    double distanceFromBallController = Math.sqrt(
-                        Math.pow(p.x - ballController.x, 2) + 
-                        Math.pow(p.y - ballController.y, 2));
-                    return distanceToGoal * 0.7 + distanceFromBallController * 0.3;
-                }))
-                .orElse(null);
+        int best = -1;
+        double bestScore = 0;
+        for (int i = 0; i < teammates.size(); i++) {
+            Vertex p = teammates.get(i);
+            if (p == ballController || !simulation.canPass(ballController, p)
+                    || simulation.countOpponentsInSocialRadius(p, simulation.calculateSocialRadius(p)) != 0) {
+                continue;
+            }
+            // Prefer targets that are closer to opponent's goal but not too far from ball controller
+            double distanceToGoal = simulation.distanceToOpponentGoal(p);
+            double dx = p.x - ballController.x;
+            double dy = p.y - ballController.y;
+            double distanceFromBallController = Math.sqrt(dx * dx + dy * dy);
+            double score = distanceToGoal * 0.7 + distanceFromBallController * 0.3;
+            if (best < 0 || Double.compare(score, bestScore) < 0) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        if (best >= 0) {
+            return simulation.slotOf(teammates.get(best));
         }
         // If no guaranteed targets, fall back to regular target selection
-        return teammates.stream()
-            .filter(p -> p != ballController)
-            .filter(p -> simulation.canPass(ballController, p))
-            .min(Comparator.comparingDouble(p -> {
-                double socialRadius = simulation.calculateSocialRadius(p);
-                // Prioritize players with fewer opponents around them
-                return simulation.countOpponentsInSocialRadius(p, socialRadius) * 100 
+        for (int i = 0; i < teammates.size(); i++) {
+            Vertex p = teammates.get(i);
+            if (p == ballController || !simulation.canPass(ballController, p)) {
+                continue;
+            }
+            double socialRadius = simulation.calculateSocialRadius(p);
+            // Prioritize players with fewer opponents around them
+            double score = simulation.countOpponentsInSocialRadius(p, socialRadius) * 100 
                 + simulation.distanceBetween(ballController, p);
-            }))
-            .orElse(null);
+            if (best < 0 || Double.compare(score, bestScore) < 0) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+/**
+ * Shared flag that asks running simulations to stop at their next iteration. Once
+ * cancelled it stays cancelled, so one token can stop every simulation of a sweep.
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy cartesian product of a list of axes: element i picks one value from every axis,
+ * read as a mixed-radix number with the first axis as the most significant digit.
+ * Nothing but the axes is held in memory; elements are built as they are iterated, and
+ * the spliterator splits by index range so a stream over the product parallelises.
+ */
+public final class CartesianProduct<T> implements Iterable<List<T>> {
+    // Compositions of each team size, shared by every product built by formations()
+    private static final ConcurrentHashMap<Integer, List<List<Integer>>> COMPOSITIONS = new ConcurrentHashMap<>();
+
+    private final List<List<T>> axes;
+    private final long size;
+
+    public CartesianProduct(List<List<T>> axes) {
+        this.axes = List.copyOf(axes);
+        long product = 1;
+        for (List<T> axis : this.axes) {
+            product = Math.multiplyExact(product, (long) axis.size());
+        }
+        this.size = product;
+    }
+
+    // Every formation of every team: one composition of each team size per element
+    public static CartesianProduct<List<Integer>> formations(List<Integer> teamSizes) {
+        List<List<List<Integer>>> axes = new ArrayList<>();
+        for (int teamSize : teamSizes) {
+            axes.add(compositions(teamSize));
+        }
+        return new CartesianProduct<>(axes);
+    }
+
+    // Every assignment of one of the values to each of count positions
+    public static <T> CartesianProduct<T> power(List<T> values, int count) {
+        return new CartesianProduct<>(Collections.nCopies(count, List.copyOf(values)));
+    }
+
+    /**
+     * The ordered ways of writing n as a sum of positive lines, e.g. [1, 2] and [2, 1] for
+     * 3 among others. There are 2^(n-1) of them, one per subset of the n-1 gaps between
+     * players, so they are read straight off the bits of a counter rather than searched for.
+     */
+    public static List<List<Integer>> compositions(int n) {
+        if (n < 1 || n > 31) {
+            throw new IllegalArgumentException("Team size out of range: " + n);
+        }
+        return COMPOSITIONS.computeIfAbsent(n, size -> {
+            List<List<Integer>> result = new ArrayList<>(1 << (size - 1));
+            for (int cuts = 0; cuts < 1 << (size - 1); cuts++) {
+                List<Integer> composition = new ArrayList<>();
+                int line = 1;
+                for (int gap = 0; gap < size - 1; gap++) {
+                    if ((cuts & (1 << gap)) != 0) {
+                        composition.add(line);
+                        line = 1;
+                    } else {
+                        line++;
+                    }
+                }
+                composition.add(line);
+                result.add(Collections.unmodifiableList(composition));
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public List<T> get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside product of size " + size);
+        }
+        Object[] element = new Object[axes.size()];
+        for (int a = axes.size() - 1; a >= 0; a--) {
+            List<T> axis = axes.get(a);
+            element[a] = axis.get((int) (index % axis.size()));
+            index /= axis.size();
+        }
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) Collections.unmodifiableList(Arrays.asList(element));
+        return result;
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        return new Iterator<>() {
+            private final Spliterator<List<T>> spliterator = spliterator();
+            private List<T> next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    ready = spliterator.tryAdvance(element -> next = element);
+                }
+                return ready;
+            }
+
+            @Override
+            public List<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<List<T>> spliterator() {
+        return new ProductSpliterator(0, size);
+    }
+
+    public Stream<List<T>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Walks [from, to) with an odometer over the axis positions, so each step costs
+    // one digit increment instead of a full index decode
+    private final class ProductSpliterator implements Spliterator<List<T>> {
+        private long from;
+        private final long to;
+        private int[] digits;
+
+        ProductSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (from >= to) {
+                return false;
+            }
+            if (digits == null) {
+                digits = new int[axes.size()];
+                long index = from;
+                for (int a = axes.size() - 1; a >= 0; a--) {
+                    digits[a] = (int) (index % axes.get(a).size());
+                    index /= axes.get(a).size();
+                }
+            }
+            Object[] element = new Object[axes.size()];
+            for (int a = 0; a < element.length; a++) {
+                element[a] = axes.get(a).get(digits[a]);
+            }
+            for (int a = digits.length - 1; a >= 0 && ++digits[a] == axes.get(a).size(); a--) {
+                digits[a] = 0;
+            }
+            from++;
+            @SuppressWarnings("unchecked")
+            List<T> result = (List<T>) Collections.unmodifiableList(Arrays.asList(element));
+            action.accept(result);
+            return true;
+        }
+
+        @Override
+        public Spliterator<List<T>> trySplit() {
+            if (digits != null || to - from < 2) {
+                return null; // Only split ranges that have not started walking
+            }
+            long middle = from + (to - from) / 2;
+            Spliterator<List<T>> prefix = new ProductSpliterator(from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+}
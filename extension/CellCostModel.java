@@ -0,0 +1,173 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Estimates how expensive a sweep cell is to play, so SweepEngine can start the most
+ * expensive cells first and split ranges by work rather than by cell count.
+ *
+ * A cell costs formations * trials * (SETUP_TICKS + ticks per trial) ticks, and a tick
+ * costs players * (players + goals) units, since each player's decision looks at every
+ * other player and goal. How long a match runs depends mostly on the field: small
+ * fields often run to the iteration cap while large ones end in a few ticks. The prior
+ * guess for that is replaced by the ticks actually measured per (teams, bound) once a
+ * cell of that kind has finished, and the measured nanoseconds per unit, per player
+ * count, correct the per-tick weight. Estimates are relative; only their order and
+ * ratios matter to the engine.
+ *
+ * Sweep threads record finished cells into their own Accumulators, which the engine
+ * folds into the model at window boundaries, so playing a cell never waits on the
+ * model's lock.
+ */
+public final class CellCostModel {
+    private static final double SETUP_TICKS = 8; // Placing the teams costs about as much as a few ticks
+
+    private final TrialPolicy policy;
+    private final int maxIterations;
+    private final Measurements measured = new Measurements();
+    private final Map<List<Integer>, Long> formations = new HashMap<>();
+    private final List<Accumulator> accumulators = new CopyOnWriteArrayList<>();
+
+    public CellCostModel(TrialPolicy policy, int maxIterations) {
+        this.policy = policy;
+        this.maxIterations = maxIterations;
+    }
+
+    public synchronized double estimate(SweepCell cell) {
+        int players = 0;
+        for (int size : cell.teamSizes) {
+            players += size;
+        }
+        double trials = formations(cell) * (double) policy.maxTrials; // Adaptive formations may stop sooner
+        double[] kind = measured.ticks.get(ticksKey(cell));
+        double ticksPerTrial = kind != null ? kind[0] / kind[1] : priorTicks(cell.bound);
+        double cost = trials * (SETUP_TICKS + ticksPerTrial) * players * (players + cell.numGoals());
+        double[] rate = measured.speed.get(players);
+        if (rate != null && measured.units > 0) {
+            // This size's speed relative to the average
+            cost *= (rate[0] / rate[1]) / (measured.nanos / measured.units);
+        }
+        return cost;
+    }
+
+    // Folds in a finished cell: how many trials and ticks it played and how long it took
+    public synchronized void record(SweepCell cell, int trials, long cellTicks, long cellNanos) {
+        measured.record(cell, trials, cellTicks, cellNanos);
+    }
+
+    // A new accumulator for one thread's cells, folded in by every later mergeAccumulators
+    public Accumulator newAccumulator() {
+        Accumulator accumulator = new Accumulator();
+        accumulators.add(accumulator);
+        return accumulator;
+    }
+
+    // Folds in and clears what every accumulator has recorded. Each accumulator is locked
+    // before the model, the only order the two locks are ever taken in together
+    public void mergeAccumulators() {
+        for (Accumulator accumulator : accumulators) {
+            synchronized (accumulator) {
+                if (!accumulator.measured.isEmpty()) {
+                    synchronized (this) {
+                        measured.add(accumulator.measured);
+                    }
+                    accumulator.measured.clear();
+                }
+            }
+        }
+    }
+
+    // Measured ticks per second over every recorded cell, or 0 before the first one
+    public synchronized double ticksPerSecond() {
+        double recorded = 0;
+        for (double[] kind : measured.ticks.values()) {
+            recorded += kind[0];
+        }
+        return measured.nanos > 0 ? recorded * 1e9 / measured.nanos : 0;
+    }
+
+    private long formations(SweepCell cell) {
+        return formations.computeIfAbsent(cell.teamSizes,
+                sizes -> CartesianProduct.formations(sizes).size());
+    }
+
+    // Short fields run longest: the smallest ones tend to hit the iteration cap
+    private double priorTicks(int bound) {
+        return Math.max(2, Math.min(maxIterations, maxIterations * 4.0 / ((double) bound * bound)));
+    }
+
+    private static int ticksKey(SweepCell cell) {
+        return cell.bound * 16 + cell.teamSizes.size();
+    }
+
+    /**
+     * Finished cells one thread has recorded since the last merge. Its lock is only
+     * contended while mergeAccumulators drains it.
+     */
+    public static final class Accumulator {
+        private final Measurements measured = new Measurements();
+
+        private Accumulator() {
+        }
+
+        public synchronized void record(SweepCell cell, int trials, long cellTicks, long cellNanos) {
+            measured.record(cell, trials, cellTicks, cellNanos);
+        }
+    }
+
+    // Ticks and time measured over a set of cells; guarded by whoever owns it
+    private static final class Measurements {
+        final Map<Integer, double[]> ticks = new HashMap<>(); // (teams, bound) -> {ticks, trials}
+        final Map<Integer, double[]> speed = new HashMap<>(); // Players -> {nanos, units}
+        double nanos;
+        double units;
+
+        void record(SweepCell cell, int trials, long cellTicks, long cellNanos) {
+            if (trials == 0) {
+                return;
+            }
+            double[] kind = ticks.computeIfAbsent(ticksKey(cell), key -> new double[2]);
+            kind[0] += cellTicks;
+            kind[1] += trials;
+            int players = 0;
+            for (int size : cell.teamSizes) {
+                players += size;
+            }
+            double cellUnits = (trials * SETUP_TICKS + cellTicks) * players * (players + cell.numGoals());
+            double[] rate = speed.computeIfAbsent(players, key -> new double[2]);
+            rate[0] += cellNanos;
+            rate[1] += cellUnits;
+            nanos += cellNanos;
+            units += cellUnits;
+        }
+
+        void add(Measurements other) {
+            other.ticks.forEach((key, kind) -> {
+                double[] sum = ticks.computeIfAbsent(key, k -> new double[2]);
+                sum[0] += kind[0];
+                sum[1] += kind[1];
+            });
+            other.speed.forEach((key, rate) -> {
+                double[] sum = speed.computeIfAbsent(key, k -> new double[2]);
+                sum[0] += rate[0];
+                sum[1] += rate[1];
+            });
+            nanos += other.nanos;
+            units += other.units;
+        }
+
+        boolean isEmpty() {
+            return units == 0;
+        }
+
+        // Zeroes every entry in place, so a thread's next cells allocate nothing
+        void clear() {
+            ticks.values().forEach(kind -> Arrays.fill(kind, 0));
+            speed.values().forEach(rate -> Arrays.fill(rate, 0));
+            nanos = 0;
+            units = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Precision a sweep cell reached: the trials played over all its formations, how many
+ * of them hit the iteration budget without a winner, and the widest confidence interval
+ * half-width of any formation for each estimate.
+ */
+public final class CellPrecision {
+    public final long cellIndex;
+    public final int trials;
+    public final int timedOutTrials;
+    public final double winRateHalfWidth;
+    public final double successfulPassesHalfWidth;
+    public final double failedPassesHalfWidth;
+
+    public CellPrecision(long cellIndex, int trials, int timedOutTrials, double winRateHalfWidth,
+                         double successfulPassesHalfWidth, double failedPassesHalfWidth) {
+        this.cellIndex = cellIndex;
+        this.trials = trials;
+        this.timedOutTrials = timedOutTrials;
+        this.winRateHalfWidth = winRateHalfWidth;
+        this.successfulPassesHalfWidth = successfulPassesHalfWidth;
+        this.failedPassesHalfWidth = failedPassesHalfWidth;
+    }
+
+    @Override
+    public String toString() {
+        return "CellPrecision{" +
+                "cellIndex=" + cellIndex +
+                ", trials=" + trials +
+                ", timedOutTrials=" + timedOutTrials +
+                ", winRateHalfWidth=" + winRateHalfWidth +
+                ", successfulPassesHalfWidth=" + successfulPassesHalfWidth +
+                ", failedPassesHalfWidth=" + failedPassesHalfWidth +
+                "}";
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used cache of team starting positions. Placing a team in a formation
+ * and spreading its players to the adjacent radius is deterministic for a given
+ * formation, team size, field, scenario and side, yet a sweep repeats it for every
+ * trial; with the cache a trial copies the finished coordinates instead.
+ *
+ * Placements are packed as {x0, y0, x1, y1, ...} in player order and must not be
+ * modified once stored. The cache is shared by every simulation and thread-safe: keys
+ * are spread over STRIPES separately locked maps, each evicting its own least recently
+ * used entries, so parallel sweeps rarely wait on one another.
+ */
+public final class FormationCache {
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    static final int STRIPES = 16; // A power of two
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public FormationCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        int stripeCapacity = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        for (int s = 0; s < STRIPES; s++) {
+            stripes[s] = new Stripe(stripeCapacity);
+        }
+    }
+
+    public double[] get(Key key) {
+        Stripe stripe = stripe(key);
+        double[] placement;
+        synchronized (stripe) {
+            placement = stripe.get(key);
+        }
+        (placement != null ? hits : misses).increment();
+        return placement;
+    }
+
+    public void put(Key key, double[] placement) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, placement);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Stripe stripe(Key key) {
+        return stripes[(key.hash ^ (key.hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    // One lock's share of the entries, least recently used first
+    private static final class Stripe extends LinkedHashMap<Key, double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    // Everything a team's starting positions depend on. The hash is worked out once, so a
+    // simulation that keeps its keys between trials looks them up without rehashing
+    public static final class Key {
+        private final List<Integer> formation;
+        private final int teamSize;
+        private final double bound;
+        private final double adjacentRadius;
+        private final SoccerSimulation.StartingScenario scenario;
+        private final boolean firstTeam; // The scenarios place team 0 differently from the others
+        private final int hash;
+
+        public Key(List<Integer> formation, int teamSize, double bound, double adjacentRadius,
+                   SoccerSimulation.StartingScenario scenario, boolean firstTeam) {
+            this.formation = formation;
+            this.teamSize = teamSize;
+            this.bound = bound;
+            this.adjacentRadius = adjacentRadius;
+            this.scenario = scenario;
+            this.firstTeam = firstTeam;
+            // By ordinal rather than the enum's identity hash, so keys draw no identity hash codes
+            int hash = formation.hashCode();
+            hash = 31 * hash + teamSize;
+            hash = 31 * hash + Double.hashCode(bound);
+            hash = 31 * hash + Double.hashCode(adjacentRadius);
+            hash = 31 * hash + scenario.ordinal();
+            this.hash = 31 * hash + (firstTeam ? 1 : 0);
+        }
+
+        // Whether this is the key of exactly these arguments, with the very same formation list
+        public boolean matches(List<Integer> formation, int teamSize, double bound, double adjacentRadius,
+                               SoccerSimulation.StartingScenario scenario, boolean firstTeam) {
+            return this.formation == formation
+                    && this.teamSize == teamSize
+                    && Double.compare(this.bound, bound) == 0
+                    && Double.compare(this.adjacentRadius, adjacentRadius) == 0
+                    && this.scenario == scenario
+                    && this.firstTeam == firstTeam;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && teamSize == other.teamSize
+                    && Double.compare(bound, other.bound) == 0
+                    && Double.compare(adjacentRadius, other.adjacentRadius) == 0
+                    && scenario == other.scenario
+                    && firstTeam == other.firstTeam
+                    && formation.equals(other.formation);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -13,30 +13,27 @@ public class LongCarryingStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        // Count adjacent opponents
-        long adjacentOpponents = ballController.adjacentVertices().stream()
-            .filter(opponent -> opponent.team != ballController.team)
-            .count();
-            
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
         // Break through if there are 2 or fewer adjacent opponents
-        return adjacentOpponents <= 2 ? "breakthrough" : "pass";
+        return ballController.countAdjacentOpponents() <= 2 ? Action.BREAKTHROUGH : Action.PASS;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
         // Find the closest teammate to the opponent goal
-        Vertex bestTarget = null;
-        double minDistanceToGoal = Double.MAX_VALUE;
-        
-        for (Vertex teammate : teammates) {
-            double distanceToGoal = Math.sqrt(Math.pow(teammate.x, 2) + Math.pow(teammate.y, 2));
-            if (distanceToGoal < minDistanceToGoal) {
-                minDistanceToGoal = distanceToGoal;
-                bestTarget = teammate;
-            }
-        }
-        
-        return bestTarget;
+        int best = indexNearestCentre(teammates, Integer.MAX_VALUE);
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
@@ -13,24 +13,26 @@ public class LongPassStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        return "pass";
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        return Action.PASS;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
-        Vertex bestTarget = null;
-        double minDistanceToGoal = Double.MAX_VALUE;
-        
-        for (Vertex teammate : teammates) {
-            if (teammate.socialCount < 2) {
-                double distanceToGoal = Math.sqrt(Math.pow(teammate.x, 2) + Math.pow(teammate.y, 2));
-                if (distanceToGoal < minDistanceToGoal) {
-                    minDistanceToGoal = distanceToGoal;
-                    bestTarget = teammate;
-                }
-            }
-        }
-        return bestTarget;
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        // Closest teammate to the opponent goal among those with fewer than 2 adjacent teammates
+        int best = indexNearestCentre(teammates, 2);
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
@@ -13,47 +13,50 @@ public class MiddleCarryingStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
         // Check if there's an opponent closer to goal than ball controller
         for (Vertex opponent : opponents) {
-            double opponentDistanceToGoal = Math.sqrt(Math.pow(opponent.x, 2) + Math.pow(opponent.y, 2));
-            double ballControllerDistanceToGoal = Math.sqrt(Math.pow(ballController.x, 2) + Math.pow(ballController.y, 2));
+            double opponentSquaredDistance = SoccerUtil.squaredDistanceToGoal(opponent, 0, 0);
+            double ballControllerSquaredDistance = SoccerUtil.squaredDistanceToGoal(ballController, 0, 0);
             
-            if (opponentDistanceToGoal < ballControllerDistanceToGoal) {
+            if (opponentSquaredDistance < ballControllerSquaredDistance) {
                 // Check if this opponent is closer to ball controller than any other opponent
-                double closestOpponentDistance = Double.MAX_VALUE;
+                double closestOpponentSquaredDistance = Double.MAX_VALUE;
                 for (Vertex otherOpponent : opponents) {
                     if (otherOpponent != opponent) {
-                        double distance = ballController.distanceTo(otherOpponent);
-                        if (distance < closestOpponentDistance) {
-                            closestOpponentDistance = distance;
+                        double squaredDistance = ballController.squaredDistanceTo(otherOpponent);
+                        if (squaredDistance < closestOpponentSquaredDistance) {
+                            closestOpponentSquaredDistance = squaredDistance;
                         }
                     }
                 }
                 
-                if (ballController.distanceTo(opponent) < closestOpponentDistance) {
-                    return "breakthrough";
+                if (ballController.squaredDistanceTo(opponent) < closestOpponentSquaredDistance) {
+                    return Action.BREAKTHROUGH;
                 }
             }
         }
         
         // If no such opponent exists, pass to the closest teammate to goal
-        return "pass";
+        return Action.PASS;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
-        Vertex bestTarget = null;
-        double minDistanceToGoal = Double.MAX_VALUE;
-        
-        for (Vertex teammate : teammates) {
-            double distanceToGoal = Math.sqrt(Math.pow(teammate.x, 2) + Math.pow(teammate.y, 2));
-            if (distanceToGoal < minDistanceToGoal) {
-                minDistanceToGoal = distanceToGoal;
-                bestTarget = teammate;
-            }
-        }
-        
-        return bestTarget;
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        // Pass to the closest teammate to goal
+        int best = indexNearestCentre(teammates, Integer.MAX_VALUE);
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
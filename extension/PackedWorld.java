@@ -0,0 +1,148 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structure-of-arrays copy of a simulation's world state: player coordinates, team and
+ * goal index in contiguous arrays indexed by player slot (the player's position in the
+ * simulation's players list), plus the slot of the ball holder.
+ *
+ * The Vertex objects stay the view strategies work with; SoccerSimulation writes every
+ * move through to this copy, so the per-opponent kernels below can stream through the
+ * arrays instead of chasing one heap object per player.
+ */
+public final class PackedWorld {
+    public double[] x = new double[0];
+    public double[] y = new double[0];
+    public double[] z = new double[0];
+    public byte[] team = new byte[0];       // Team id as an offset from 'A'
+    public int[] goalIndex = new int[0];    // Goal index of each player's team
+    public int ballHolder = -1;
+
+    private final double[] goalX = new double[6];
+    private final double[] goalY = new double[6];
+    private final double[] goalZ = new double[6];
+    private Vertex[] players = new Vertex[0];
+    private int size;
+
+    public void load(List<Vertex> playerList, Map<Character, Integer> teamGoals, double[][] goalCoordinates) {
+        size = playerList.size();
+        if (players.length < size) {
+            players = new Vertex[size];
+            x = new double[size];
+            y = new double[size];
+            z = new double[size];
+            team = new byte[size];
+            goalIndex = new int[size];
+        }
+        for (int slot = 0; slot < size; slot++) {
+            Vertex player = playerList.get(slot);
+            players[slot] = player;
+            x[slot] = player.x;
+            y[slot] = player.y;
+            z[slot] = player.z;
+            team[slot] = (byte) (player.team - 'A');
+            goalIndex[slot] = teamGoals.getOrDefault(player.team, 0);
+        }
+        for (int g = 0; g < goalCoordinates.length; g++) {
+            goalX[g] = goalCoordinates[g][0];
+            goalY[g] = goalCoordinates[g][1];
+            goalZ[g] = goalCoordinates[g][2];
+        }
+        ballHolder = -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Vertex player(int slot) {
+        return players[slot];
+    }
+
+    // Slot of a player of this world, or -1 if it belongs to another layout
+    public int slotOf(Vertex player) {
+        int slot = player.slot;
+        return slot >= 0 && slot < size && players[slot] == player ? slot : -1;
+    }
+
+    void moved(int slot, Vertex player) {
+        x[slot] = player.x;
+        y[slot] = player.y;
+        z[slot] = player.z;
+    }
+
+    public double distance(int a, int b) {
+        double dx = x[a] - x[b];
+        double dy = y[a] - y[b];
+        double dz = z[a] - z[b];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    // Distance from a slot to the goal its team is assigned
+    public double distanceToGoal(int slot) {
+        return Math.sqrt(squaredDistanceToGoal(slot));
+    }
+
+    public double squaredDistanceToGoal(int slot) {
+        int g = goalIndex[slot];
+        double dx = x[slot] - goalX[g];
+        double dy = y[slot] - goalY[g];
+        double dz = z[slot] - goalZ[g];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Counts players not on excludedTeam closer than radius to the segment (x1, y1, z1)-(x2, y2, z2).
+     */
+    public int countNearSegment(double x1, double y1, double z1, double x2, double y2, double z2,
+                                double radius, char excludedTeam) {
+        byte excluded = (byte) (excludedTeam - 'A');
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        double segmentLengthSquared = dx*dx + dy*dy + dz*dz;
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (team[slot] == excluded) {
+                continue;
+            }
+            double x0 = x[slot];
+            double y0 = y[slot];
+            double z0 = z[slot];
+            double distance;
+            if (segmentLengthSquared == 0) {
+                distance = Math.sqrt((x0-x1)*(x0-x1) + (y0-y1)*(y0-y1) + (z0-z1)*(z0-z1));
+            } else {
+                double t = ((x0-x1)*dx + (y0-y1)*dy + (z0-z1)*dz) / segmentLengthSquared;
+                if (t < 0) {
+                    distance = Math.sqrt((x0-x1)*(x0-x1) + (y0-y1)*(y0-y1) + (z0-z1)*(z0-z1));
+                } else if (t > 1) {
+                    distance = Math.sqrt((x0-x2)*(x0-x2) + (y0-y2)*(y0-y2) + (z0-z2)*(z0-z2));
+                } else {
+                    double projX = x1 + t * dx;
+                    double projY = y1 + t * dy;
+                    double projZ = z1 + t * dz;
+                    distance = Math.sqrt((x0-projX)*(x0-projX) + (y0-projY)*(y0-projY) + (z0-projZ)*(z0-projZ));
+                }
+            }
+            if (distance < radius) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * True if any player not on excludedTeam is closer to its own team's goal than the
+     * distance whose square is given.
+     */
+    public boolean anyCloserToGoal(double squaredDistance, char excludedTeam) {
+        byte excluded = (byte) (excludedTeam - 'A');
+        for (int slot = 0; slot < size; slot++) {
+            if (team[slot] != excluded && squaredDistanceToGoal(slot) < squaredDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running summary of the CellPrecisions of a sweep: how many cells ran, their trials in
+ * total and the fewest and most any one cell played, the trials that timed out, and the
+ * widest half-width of each estimate. It stays the same size however many cells it has
+ * seen, and merging summaries gives the summary of all their cells.
+ */
+public final class PrecisionSummary {
+    private long cells;
+    private long trials;
+    private long timedOutTrials;
+    private int fewestTrials = Integer.MAX_VALUE;
+    private int mostTrials;
+    private double widestWinRate;
+    private double widestSuccessfulPasses;
+    private double widestFailedPasses;
+
+    public void add(CellPrecision precision) {
+        cells++;
+        trials += precision.trials;
+        timedOutTrials += precision.timedOutTrials;
+        fewestTrials = Math.min(fewestTrials, precision.trials);
+        mostTrials = Math.max(mostTrials, precision.trials);
+        widestWinRate = Math.max(widestWinRate, precision.winRateHalfWidth);
+        widestSuccessfulPasses = Math.max(widestSuccessfulPasses, precision.successfulPassesHalfWidth);
+        widestFailedPasses = Math.max(widestFailedPasses, precision.failedPassesHalfWidth);
+    }
+
+    public PrecisionSummary merge(PrecisionSummary other) {
+        cells += other.cells;
+        trials += other.trials;
+        timedOutTrials += other.timedOutTrials;
+        fewestTrials = Math.min(fewestTrials, other.fewestTrials);
+        mostTrials = Math.max(mostTrials, other.mostTrials);
+        widestWinRate = Math.max(widestWinRate, other.widestWinRate);
+        widestSuccessfulPasses = Math.max(widestSuccessfulPasses, other.widestSuccessfulPasses);
+        widestFailedPasses = Math.max(widestFailedPasses, other.widestFailedPasses);
+        return this;
+    }
+
+    public long cells() {
+        return cells;
+    }
+
+    public long trials() {
+        return trials;
+    }
+
+    public long timedOutTrials() {
+        return timedOutTrials;
+    }
+
+    // Fewest trials any cell played; zero before the first cell
+    public int fewestTrials() {
+        return cells > 0 ? fewestTrials : 0;
+    }
+
+    public int mostTrials() {
+        return mostTrials;
+    }
+
+    public double widestWinRateHalfWidth() {
+        return widestWinRate;
+    }
+
+    public double widestSuccessfulPassesHalfWidth() {
+        return widestSuccessfulPasses;
+    }
+
+    public double widestFailedPassesHalfWidth() {
+        return widestFailedPasses;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(cells);
+        out.writeLong(trials);
+        out.writeLong(timedOutTrials);
+        out.writeInt(fewestTrials);
+        out.writeInt(mostTrials);
+        out.writeDouble(widestWinRate);
+        out.writeDouble(widestSuccessfulPasses);
+        out.writeDouble(widestFailedPasses);
+    }
+
+    public static PrecisionSummary read(DataInput in) throws IOException {
+        PrecisionSummary summary = new PrecisionSummary();
+        summary.cells = in.readLong();
+        summary.trials = in.readLong();
+        summary.timedOutTrials = in.readLong();
+        summary.fewestTrials = in.readInt();
+        summary.mostTrials = in.readInt();
+        summary.widestWinRate = in.readDouble();
+        summary.widestSuccessfulPasses = in.readDouble();
+        summary.widestFailedPasses = in.readDouble();
+        return summary;
+    }
+}
@@ -42,16 +42,16 @@ public class QuidditchSimulation {
                 y = FIELD_HEIGHT / 2;
                 z = FIELD_DEPTH / 2;
             } else {
-                x = Math.random() * FIELD_WIDTH;
-                y = Math.random() * FIELD_HEIGHT;
-                z = Math.random() * FIELD_DEPTH;
+                x = random.nextDouble() * FIELD_WIDTH;
+                y = random.nextDouble() * FIELD_HEIGHT;
+                z = random.nextDouble() * FIELD_DEPTH;
             }
         }
         
         public void resetVelocity() {
-            vx = Math.random() * BALL_SPEED * 2 - BALL_SPEED;
-            vy = Math.random() * BALL_SPEED * 2 - BALL_SPEED;
-            vz = Math.random() * BALL_SPEED * 2 - BALL_SPEED;
+            vx = random.nextDouble() * BALL_SPEED * 2 - BALL_SPEED;
+            vy = random.nextDouble() * BALL_SPEED * 2 - BALL_SPEED;
+            vz = random.nextDouble() * BALL_SPEED * 2 - BALL_SPEED;
         }
         
         public void updatePosition() {
@@ -307,8 +307,14 @@ public class QuidditchSimulation {
     }
     
     private GameState gameState = new GameState();
+    private final SimulationRandom random;
     
     public QuidditchSimulation() {
+        this(new SimulationRandom());
+    }
+    
+    public QuidditchSimulation(SimulationRandom random) {
+        this.random = random;
         initializePlayers();
         initializeBalls();
     }
@@ -372,7 +378,7 @@ public class QuidditchSimulation {
         printFinalScore();
     }
     
-    private void simulateTurn() {
+    void simulateTurn() {
         // Update ball positions
         quaffle.updatePosition();
         bludgers[0].updatePosition();
@@ -462,8 +468,8 @@ public class QuidditchSimulation {
     
     private Player getRandomOpponent(Player player) {
         Player[] opponents = player.team == 'A' ? teamB : teamA;
-        if (Math.random() < 0.3) { // 30% chance to hit
-            return opponents[(int)(Math.random() * 7)];
+        if (random.nextDouble() < 0.3) { // 30% chance to hit
+            return opponents[random.nextInt(opponents.length)];
         }
         return null;
     }
@@ -589,7 +595,7 @@ public class QuidditchSimulation {
         }
     }
     
-    private boolean isGameOver() {
+    boolean isGameOver() {
         return !goldenSnitch.inPlay || turnCount >= MAX_TURN_COUNT;
     }
     
@@ -685,7 +691,10 @@ public class QuidditchSimulation {
     }
     
     public static void main(String[] args) {
-        QuidditchSimulation simulation = new QuidditchSimulation();
+        // An optional seed replays a match exactly
+        QuidditchSimulation simulation = args.length > 0
+            ? new QuidditchSimulation(new SimulationRandom(Long.parseLong(args[0])))
+            : new QuidditchSimulation();
         simulation.startGame();
     }
 }
\ No newline at end of file
@@ -1,12 +1,8 @@
 import java.util.List;
-import java.util.Random;
 
 public class RandomCarryingStrategy extends SoccerStrategy {
-    private Random random;
-    
     public RandomCarryingStrategy() {
         this.name = "RandomCarrying";
-        this.random = new Random();
     }
 
     @Override
@@ -17,25 +13,27 @@ public class RandomCarryingStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
         // Randomly decide whether to break through or pass
-        return random.nextBoolean() ? "breakthrough" : "pass";
+        return simulation.getRandom().nextBoolean() ? Action.BREAKTHROUGH : Action.PASS;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
         // Find the closest teammate to the opponent goal
-        Vertex bestTarget = null;
-        double minDistanceToGoal = Double.MAX_VALUE;
-        
-        for (Vertex teammate : teammates) {
-            double distanceToGoal = Math.sqrt(Math.pow(teammate.x, 2) + Math.pow(teammate.y, 2));
-            if (distanceToGoal < minDistanceToGoal) {
-                minDistanceToGoal = distanceToGoal;
-                bestTarget = teammate;
-            }
-        }
-        
-        return bestTarget;
+        int best = indexNearestCentre(teammates, Integer.MAX_VALUE);
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file
@@ -1,12 +1,8 @@
 import java.util.List;
-import java.util.Random;
 
 public class RandomPassStrategy extends SoccerStrategy {
-    private Random random;
-    
     public RandomPassStrategy() {
         this.name = "RandomPass";
-        this.random = new Random();
     }
 
     @Override
@@ -17,22 +13,40 @@ public class RandomPassStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        return "pass";
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        return Action.PASS;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
-        // Filter teammates with socialCount = 0
-        List<Vertex> validTargets = teammates.stream()
-            .filter(teammate -> teammate.socialCount == 0)
-            .toList();
-            
-        if (validTargets.isEmpty()) {
-            return null;
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        // Randomly select from teammates with socialCount = 0
+        int validTargets = 0;
+        for (int i = 0; i < teammates.size(); i++) {
+            if (teammates.get(i).socialCount == 0) {
+                validTargets++;
+            }
+        }
+        if (validTargets == 0) {
+            return -1;
+        }
+        int pick = simulation.getRandom().nextInt(validTargets);
+        for (int i = 0; i < teammates.size(); i++) {
+            if (teammates.get(i).socialCount == 0 && pick-- == 0) {
+                return simulation.slotOf(teammates.get(i));
+            }
         }
-        
-        // Randomly select from valid targets
-        return validTargets.get(random.nextInt(validTargets.size()));
+        return -1;
     }
 }
\ No newline at end of file
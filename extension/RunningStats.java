@@ -0,0 +1,34 @@
+/**
+ * Running mean and variance of a stream of observations (Welford's method), so a
+ * confidence interval can be read off after every trial without keeping the samples.
+ */
+public final class RunningStats {
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    // Sample variance; zero until there are two observations
+    public double variance() {
+        return count > 1 ? squaredDeviations / (count - 1) : 0;
+    }
+
+    // Half-width of the normal confidence interval on the mean for the given z score
+    public double halfWidth(double z) {
+        return count > 0 ? z * Math.sqrt(variance() / count) : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random source for a single simulation. Each instance is confined to one thread, so
+ * parallel trials never contend on a shared seed the way Math.random() does, and a
+ * trial can be replayed exactly by constructing a new instance from its seed.
+ */
+public final class SimulationRandom {
+    private final long seed;
+    private final SplittableRandom random;
+
+    public SimulationRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public SimulationRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    // Derives an independent, reproducible seed for a sub-stream such as one sweep cell
+    public static long deriveSeed(long seed, long stream) {
+        return new SplittableRandom(seed ^ mix(stream)).nextLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    // Seed for the next trial played from this stream
+    public long nextSeed() {
+        return random.nextLong();
+    }
+
+    private static long mix(long z) {
+        // SplitMix64 finaliser, so neighbouring stream ids give unrelated seeds
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -6,7 +6,15 @@ public final class SoccerSimulation {
     public static final int boundX = 100;
 
     public static class SimulationResult {
+        public enum Outcome {
+            WON,             // A strategy reached the winning score
+            ITERATION_LIMIT, // maxIterations ran out first
+            DEADLINE,        // The wall-clock deadline passed first
+            CANCELLED        // The cancellation token was set
+        }
         public SoccerStrategy winner;
+        public Outcome outcome = Outcome.WON;
+        public boolean timedOut; // Ran out of iterations or time before anyone won; winner is then the leader on goals
         public int totalIterations;
         public Map<SoccerStrategy, Integer> strategyScores;
         public Map<Character, Integer> teamScores;
@@ -27,6 +35,31 @@ public final class SoccerSimulation {
             this.failedPasses = failedPasses;
             this.totalMovingDistance = totalMovingDistance;
         }
+
+        public SimulationResult(SoccerStrategy winningStrategy, Outcome outcome, int totalIterations,
+                               Map<SoccerStrategy, Integer> strategyScores,
+                               Map<Character, Integer> teamScores,
+                               int successfulPasses, int failedPasses,
+                               double totalMovingDistance) {
+            this(winningStrategy, totalIterations, strategyScores, teamScores,
+                    successfulPasses, failedPasses, totalMovingDistance);
+            this.outcome = outcome;
+            this.timedOut = outcome == Outcome.ITERATION_LIMIT || outcome == Outcome.DEADLINE;
+        }
+
+        // Index of the team with strictly the most goals, or -1 if the lead is shared or nobody scored
+        public int winningTeam() {
+            int winner = -1, best = 0;
+            for (Map.Entry<Character, Integer> entry : teamScores.entrySet()) {
+                if (entry.getValue() > best) {
+                    best = entry.getValue();
+                    winner = entry.getKey() - 'A';
+                } else if (entry.getValue() == best) {
+                    winner = -1;
+                }
+            }
+            return winner;
+        }
     }
     public enum StartingScenario {
         KICK_OFF, // Standard kickoff from center
@@ -45,6 +78,55 @@ public final class SoccerSimulation {
     protected double totalMovingDistance;
     protected boolean is3D;
     protected Map<Character, Integer> teamGoals; // Maps team ID to goal index
+    protected SimulationRandom random; // Per-simulation random source, replaced for each trial
+    protected final SpatialGrid grid = new SpatialGrid(); // Neighbour index over players, cell size adjacentRadius
+    protected final PackedWorld world = new PackedWorld(); // Packed copy of player state, kept when packedState is set
+    protected boolean packedState;
+    private final Vertex.PositionListener positionListener = this::playerMoved;
+    // Read-only teammate lists per player slot and opponent lists per team, built on first use
+    // and dropped whenever team membership changes in updatePlayersList
+    private final List<List<Vertex>> teammateViews = new ArrayList<>();
+    private final List<List<Vertex>> opponentViews = new ArrayList<>();
+    // Every player and team list created per team slot; later initialisations reposition
+    // these in place instead of allocating new ones
+    private final List<List<Vertex>> rosters = new ArrayList<>();
+    private final List<List<Vertex>> teamLists = new ArrayList<>();
+    private final List<Integer> resetSizes = new ArrayList<>();
+    // Goal positions by index, {x, y, z} each. They depend only on bound (numGoals just
+    // picks how many are in play), so the table is refilled whenever bound has changed
+    private final double[][] goalPositions = new double[6][3];
+    private double goalPositionsBound = Double.NaN;
+    private static final double[] NO_GOAL = new double[3]; // Unknown indexes sit at the origin
+    // Starting positions of formations already placed, shared by every simulation
+    private static final FormationCache PLACEMENTS = new FormationCache(FormationCache.DEFAULT_CAPACITY);
+    // Each team slot's last placement and its key, so the trials of one formation reuse
+    // them without going to the shared cache
+    private FormationCache.Key[] placementKeys = new FormationCache.Key[0];
+    private double[][] lastPlacements = new double[0][];
+    // Formations of the last initializeTeamsWithFormations, which a reset after a goal goes
+    // back to; null after initializeTeams
+    private List<List<Integer>> formations;
+    // Measurements taken since the last move, filled on first use: squared distances between
+    // player slots (symmetric, n * n), each player's distance to every goal (n * 6) and the
+    // passes canPass allows (passer * n + receiver). Any move or team change drops them all
+    private double[] squaredDistances = new double[0];
+    private double[] goalDistances = new double[0];
+    private long[] knownDistances = new long[0];
+    private long[] knownGoalDistances = new long[0];
+    private long[] knownPasses = new long[0];
+    private long[] feasiblePasses = new long[0];
+    private int measuredPlayers;
+    private boolean measurementsValid;
+    private long positionVersion; // Counts moves and team changes
+    private final SoccerStrategy.Decision decision = new SoccerStrategy.Decision();
+    private VoronoiDiagram voronoiDiagram; // Strategies rebuild it in place instead of allocating their own
+    // Offside lines of attacking teams A and B, the only ones offside applies to: slots of the
+    // last and second-last defender, the opponents nearest the goal line the team attacks
+    // (ties to the lower slot), -1 where there are fewer. Moves update them in place; moving a
+    // listed defender, which may let someone else past it, leaves the line for a rescan
+    private final int[][] defensiveLines = {{-1, -1}, {-1, -1}};
+    private final boolean[] defensiveLineStale = {true, true};
+    private double defensiveLinesBound = Double.NaN;
 
     public SoccerSimulation(double width, double height, double adjacentRadius, boolean is3D) {
         bound = height / 2;
@@ -60,6 +142,7 @@ public final class SoccerSimulation {
         numGoals = 2; // Default number of goals for 2D
         this.is3D = is3D;
         teamGoals = new HashMap<>();
+        random = new SimulationRandom();
     }
     
     public SoccerSimulation(double width, double height) {
@@ -79,6 +162,65 @@ public final class SoccerSimulation {
         this.numGoals = numGoals;
         is3D = true;
         teamGoals = new HashMap<>();
+        random = new SimulationRandom();
+    }
+    
+    public SimulationRandom getRandom() {
+        return random;
+    }
+    
+    public void setRandom(SimulationRandom random) {
+        this.random = random;
+    }
+    
+    // Keeps a structure-of-arrays copy of the players and runs the per-opponent kernels on it.
+    // Takes effect from the next team initialisation
+    public void setPackedState(boolean packedState) {
+        this.packedState = packedState;
+    }
+    
+    public boolean isPackedState() {
+        return packedState;
+    }
+    
+    // Changes whenever a player moves or the teams are rebuilt
+    public long getPositionVersion() {
+        return positionVersion;
+    }
+    
+    public SoccerStrategy.Decision getDecision() {
+        return decision;
+    }
+    
+    // Slot of one of the current players in the players list, or -1 for anyone else
+    public int slotOf(Vertex player) {
+        int slot = player.slot;
+        return slot >= 0 && slot < players.size() && players.get(slot) == player ? slot : -1;
+    }
+    
+    // The player in a slot of the players list, or null for -1
+    public Vertex getPlayer(int slot) {
+        return slot >= 0 ? players.get(slot) : null;
+    }
+    
+    // This simulation's Voronoi diagram over the rectangle, reused until the rectangle changes.
+    // Strategies are shared between simulations, so per-simulation scratch like this lives here
+    public VoronoiDiagram getVoronoiDiagram(double minX, double minY, double maxX, double maxY) {
+        if (voronoiDiagram == null || !voronoiDiagram.hasBounds(minX, minY, maxX, maxY)) {
+            voronoiDiagram = new VoronoiDiagram(minX, minY, maxX, maxY);
+        }
+        return voronoiDiagram;
+    }
+
+    public static FormationCache getPlacementCache() {
+        return PLACEMENTS;
+    }
+    
+    public PackedWorld getWorld() {
+        if (!packedState) {
+            throw new IllegalStateException("Packed state is not enabled for this simulation");
+        }
+        return world;
     }
     public void resetStatistics() {
         this.successfulPasses = 0;
@@ -86,13 +228,20 @@ public final class SoccerSimulation {
         this.totalMovingDistance = 0;
     }
     
+    // The team whose first player starts with the ball in the given scenario
+    public static int kickingTeam(StartingScenario scenario) {
+        return (scenario == StartingScenario.GOAL_KICK || scenario == StartingScenario.CORNER_KICK) ? 0 : 1;
+    }
+    
     public void initializeTeams(List<Integer> teamSizes, StartingScenario scenario) {
+        boolean sameTeams = hasTeamSizes(teamSizes);
         teams.clear();
+        formations = null;
         
         for (int t = 0; t < teamSizes.size(); t++) {
             int teamSize = teamSizes.get(t);
             char teamId = (char)('A' + t); // Team A, B, C, etc.
-            List<Vertex> team = new ArrayList<>();
+            List<Vertex> team = teamList(t);
             
             // Determine the goal index for this team
             int goalIndex = t % numGoals;
@@ -115,7 +264,7 @@ public final class SoccerSimulation {
                                 double x = -50 + (withinLine * 200.0 / (numLines + 1));
                                 double z = x;
                                 
-                                Vertex player = new Vertex(x, y, z, teamId);
+                                Vertex player = player(t, i, x, y, z);
                                 player.playerIndex = i;
                                 player.goalIndex = goalIndex;
                                 team.add(player);
@@ -173,7 +322,7 @@ public final class SoccerSimulation {
                                 double y = minY + (maxY - minY) * ((yIndex + 1.0) / (numY + 1));
                                 double z = minZ + (maxZ - minZ) * ((zIndex + 1.0) / (numZ + 1));
                                 
-                                Vertex player = new Vertex(x, y, z, teamId);
+                                Vertex player = player(t, i, x, y, z);
                                 player.playerIndex = i;
                                 player.goalIndex = goalIndex;
                                 team.add(player);
@@ -190,7 +339,7 @@ public final class SoccerSimulation {
                             double y = -bound/2 + line * lineSpacing;
                             double x = -50 + (withinLine * 200.0 / (numLines + 1));
                             
-                            Vertex player = new Vertex(x, y, 0, teamId);
+                            Vertex player = player(t, i, x, y, 0);
                             player.playerIndex = i;
                             player.goalIndex = goalIndex;
                             team.add(player);
@@ -199,8 +348,8 @@ public final class SoccerSimulation {
                     break;
                 
                 case CORNER_KICK:
-                    double cornerX = getGoalCoordinates(goalIndex)[0];
-                    double cornerY = getGoalCoordinates(goalIndex)[1];
+                    double cornerX = goalPosition(goalIndex)[0];
+                    double cornerY = goalPosition(goalIndex)[1];
                     
                     for (int i = 0; i < teamSize; i++) {
                         double angle = 2 * Math.PI * i / teamSize;
@@ -209,7 +358,7 @@ public final class SoccerSimulation {
                         double y = cornerY + radius * Math.sin(angle);
                         double z = is3D ? x : 0;
                         
-                        Vertex player = new Vertex(x, y, z, teamId);
+                        Vertex player = player(t, i, x, y, z);
                         player.playerIndex = i;
                         player.goalIndex = goalIndex;
                         team.add(player);
@@ -218,8 +367,8 @@ public final class SoccerSimulation {
                 
                 case GOAL_KICK:
                     // Position players in a defensive formation
-                    double goalX = getGoalCoordinates(goalIndex)[0];
-                    double goalY = getGoalCoordinates(goalIndex)[1];
+                    double goalX = goalPosition(goalIndex)[0];
+                    double goalY = goalPosition(goalIndex)[1];
                     
                     for (int i = 0; i < teamSize; i++) {
                         double angle = 2 * Math.PI * i / teamSize;
@@ -228,7 +377,7 @@ public final class SoccerSimulation {
                         double y = goalY + radius * Math.sin(angle);
                         double z = is3D ? x : 0;
                         
-                        Vertex player = new Vertex(x, y, z, teamId);
+                        Vertex player = player(t, i, x, y, z);
                         player.playerIndex = i;
                         player.goalIndex = goalIndex;
                         team.add(player);
@@ -238,46 +387,119 @@ public final class SoccerSimulation {
             teams.add(team);
         }
         
-        // Update players list
-        players.clear();
-        for (List<Vertex> team : teams) {
-            players.addAll(team);
-        }
         // Set initial ball controller based on scenario
-        currentTeamWithBall = (scenario == StartingScenario.GOAL_KICK || 
-                             scenario == StartingScenario.CORNER_KICK) ? 0 : 1;
+        currentTeamWithBall = kickingTeam(scenario);
         ballController = teams.get(currentTeamWithBall).get(0);
         ballController.hasBall = true;
         
-        updatePlayersList();
+        updatePlayersList(sameTeams);
     }
     
     public void initializeTeamsWithFormations(List<Integer> teamSizes, List<List<Integer>> formations, StartingScenario scenario) {
+        boolean sameTeams = hasTeamSizes(teamSizes);
         teams.clear();
+        this.formations = formations;
         for (int t = 0; t < teamSizes.size(); t++) {
             int teamSize = teamSizes.get(t);
-            char teamId = (char)('A' + t); // Team A, B, C, etc.
-            List<Vertex> team = new ArrayList<>();
+            List<Vertex> team = teamList(t);
+            // Teams defend the same goals as in initializeTeams
+            int goalIndex = t % numGoals;
+            teamGoals.put((char) ('A' + t), goalIndex);
             
             // Create players with initial positions (0,0)
             for (int i = 0; i < teamSize; i++) {
-                Vertex player = new Vertex(0, 0, teamId);
+                Vertex player = player(t, i, 0, 0, 0);
                 player.playerIndex = i;
+                player.goalIndex = goalIndex;
                 team.add(player);
             }
-            positionPlayersInFormation(team, formations.get(t), t);
-            adjustPositionsForScenario(team, scenario, t);
+            // Copy the finished positions if this placement has been worked out before
+            double[] placement = placement(t, formations.get(t), teamSize, scenario);
+            if (placement == null) {
+                FormationCache.Key key = placementKeys[t];
+                positionPlayersInFormation(team, formations.get(t), t);
+                adjustPositionsForScenario(team, scenario, t);
+                placement = new double[teamSize * 2];
+                for (int i = 0; i < teamSize; i++) {
+                    placement[2 * i] = team.get(i).x;
+                    placement[2 * i + 1] = team.get(i).y;
+                }
+                PLACEMENTS.put(key, placement);
+                lastPlacements[t] = placement;
+            } else {
+                for (int i = 0; i < teamSize; i++) {
+                    team.get(i).x = placement[2 * i];
+                    team.get(i).y = placement[2 * i + 1];
+                }
+            }
             teams.add(team);
         }
         
         // Set initial ball controller based on scenario
-        currentTeamWithBall = (scenario == StartingScenario.GOAL_KICK || 
-                             scenario == StartingScenario.CORNER_KICK) ? 0 : 1;
+        currentTeamWithBall = kickingTeam(scenario);
         ballController = teams.get(currentTeamWithBall).get(0);
         ballController.hasBall = true;
         
         // Update the players list
-        updatePlayersList();
+        updatePlayersList(sameTeams);
+    }
+
+    // The team slot's cached placement, or null after storing the key to put it under. The
+    // slot's last key is reused while the formation list and everything else stay the same
+    private double[] placement(int t, List<Integer> formation, int teamSize, StartingScenario scenario) {
+        if (placementKeys.length <= t) {
+            placementKeys = Arrays.copyOf(placementKeys, t + 1);
+            lastPlacements = Arrays.copyOf(lastPlacements, t + 1);
+        }
+        FormationCache.Key key = placementKeys[t];
+        if (key != null && key.matches(formation, teamSize, bound, adjacentRadius, scenario, t == 0)
+                && lastPlacements[t] != null) {
+            return lastPlacements[t];
+        }
+        key = new FormationCache.Key(formation, teamSize, bound, adjacentRadius, scenario, t == 0);
+        placementKeys[t] = key;
+        lastPlacements[t] = PLACEMENTS.get(key);
+        return lastPlacements[t];
+    }
+
+    // Whether the current teams have exactly these sizes, so a reset keeps every player in its slot
+    private boolean hasTeamSizes(List<Integer> teamSizes) {
+        if (teams.size() != teamSizes.size()) {
+            return false;
+        }
+        for (int t = 0; t < teams.size(); t++) {
+            if (teams.get(t).size() != teamSizes.get(t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Team list t, emptied for refilling
+    private List<Vertex> teamList(int t) {
+        while (teamLists.size() <= t) {
+            teamLists.add(new ArrayList<>());
+        }
+        List<Vertex> team = teamLists.get(t);
+        team.clear();
+        return team;
+    }
+
+    // Player i of team t as a fresh player at the given position, reusing the one made by an
+    // earlier initialisation if there is one
+    private Vertex player(int t, int i, double x, double y, double z) {
+        while (rosters.size() <= t) {
+            rosters.add(new ArrayList<>());
+        }
+        List<Vertex> roster = rosters.get(t);
+        if (i < roster.size()) {
+            Vertex player = roster.get(i);
+            player.reset(x, y, z);
+            return player;
+        }
+        Vertex player = new Vertex(x, y, z, (char) ('A' + t));
+        roster.add(player);
+        return player;
     }
     
     private void positionPlayersInFormation(List<Vertex> team, List<Integer> formation, int teamIndex) {
@@ -406,15 +628,92 @@ public final class SoccerSimulation {
                 break;
         }
     }
-    // Update the players list whenever teams are modified
-    private void updatePlayersList() {
+    // Update the players list whenever teams are modified. When every player kept its slot
+    // the cached teammate and opponent lists are still right and are kept
+    private void updatePlayersList(boolean sameTeams) {
         players.clear();
-        for (List<Vertex> team : teams) {
-            players.addAll(team);
+        for (int t = 0; t < teams.size(); t++) {
+            List<Vertex> team = teams.get(t);
+            for (int i = 0; i < team.size(); i++) {
+                players.add(team.get(i)); // addAll would copy each team through toArray
+            }
+        }
+        for (int slot = 0; slot < players.size(); slot++) {
+            players.get(slot).attach(positionListener, slot);
+        }
+        grid.rebuild(players, adjacentRadius);
+        measurementsValid = false;
+        positionVersion++;
+        Arrays.fill(defensiveLineStale, true);
+        if (packedState) {
+            world.load(players, teamGoals, goalPositions());
+            world.ballHolder = ballController != null ? world.slotOf(ballController) : -1;
+        }
+        if (sameTeams) {
+            return;
+        }
+        teammateViews.clear();
+        opponentViews.clear();
+        for (int slot = 0; slot < players.size(); slot++) {
+            teammateViews.add(null);
+        }
+        for (int t = 0; t < teams.size(); t++) {
+            opponentViews.add(null);
         }
     }
     
+    private void playerMoved(Vertex player) {
+        measurementsValid = false;
+        positionVersion++;
+        int slot = slotOf(player);
+        if (slot >= 0) {
+            for (int t = 0; t < defensiveLines.length; t++) {
+                if (player.team != 'A' + t && !defensiveLineStale[t]) {
+                    defenderMoved(t, slot);
+                }
+            }
+        }
+        grid.update(player, player.slot);
+        if (packedState && world.slotOf(player) >= 0) {
+            world.moved(player.slot, player);
+        }
+    }
+    
+    private void setBallController(Vertex player) {
+        ballController = player;
+        if (packedState) {
+            world.ballHolder = world.slotOf(player);
+        }
+    }
+    
+    // Returns a cached read-only list for players of the current teams; other players get a fresh list
     public List<Vertex> getTeammates(Vertex player) {
+        int slot = player.slot;
+        if (slot >= 0 && slot < teammateViews.size() && players.get(slot) == player) {
+            List<Vertex> view = teammateViews.get(slot);
+            if (view == null) {
+                view = Collections.unmodifiableList(computeTeammates(player));
+                teammateViews.set(slot, view);
+            }
+            return view;
+        }
+        return computeTeammates(player);
+    }
+    
+    public List<Vertex> getOpponents(Vertex player) {
+        int teamIndex = player.team - 'A';
+        if (teamIndex >= 0 && teamIndex < opponentViews.size()) {
+            List<Vertex> view = opponentViews.get(teamIndex);
+            if (view == null) {
+                view = Collections.unmodifiableList(computeOpponents(player));
+                opponentViews.set(teamIndex, view);
+            }
+            return view;
+        }
+        return computeOpponents(player);
+    }
+    
+    private List<Vertex> computeTeammates(Vertex player) {
         for (List<Vertex> team : teams) {
             if (!team.isEmpty() && team.get(0).team == player.team) {
                 return team.stream()
@@ -423,7 +722,8 @@ public final class SoccerSimulation {
             }
         }return new ArrayList<>();
     }
-    public List<Vertex> getOpponents(Vertex player) {
+    
+    private List<Vertex> computeOpponents(Vertex player) {
         List<Vertex> opponents = new ArrayList<>();
         for (List<Vertex> team : teams) {
             if (!team.isEmpty() && team.get(0).team != player.team) {
@@ -435,21 +735,97 @@ public final class SoccerSimulation {
     
 
     public double distanceBetween(Vertex player1, Vertex player2) {
+        return Math.sqrt(squaredDistance(player1, player2));
+    }
+
+    // Squared distance, from the per-tick matrix when both are current players. (a - b)^2 and
+    // (b - a)^2 round the same, so one entry serves both orders
+    private double squaredDistance(Vertex player1, Vertex player2) {
+        int i = measuredSlot(player1);
+        int j = measuredSlot(player2);
+        if (i < 0 || j < 0) {
+            return computeSquaredDistance(player1, player2);
+        }
+        int pair = i * measuredPlayers + j;
+        if ((knownDistances[pair >>> 6] & (1L << pair)) == 0) {
+            double squared = computeSquaredDistance(player1, player2);
+            int mirror = j * measuredPlayers + i;
+            squaredDistances[pair] = squared;
+            squaredDistances[mirror] = squared;
+            knownDistances[pair >>> 6] |= 1L << pair;
+            knownDistances[mirror >>> 6] |= 1L << mirror;
+        }
+        return squaredDistances[pair];
+    }
+
+    private static double computeSquaredDistance(Vertex player1, Vertex player2) {
         double dx = player1.x - player2.x;
         double dy = player1.y - player2.y;
         double dz = player1.z - player2.z;
-        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // The player's slot if it is one of the current players, after making sure the
+    // measurements belong to the current positions; -1 for anyone else
+    private int measuredSlot(Vertex player) {
+        int slot = slotOf(player);
+        if (slot < 0) {
+            return -1;
+        }
+        if (!measurementsValid) {
+            int n = players.size();
+            if (n != measuredPlayers) {
+                measuredPlayers = n;
+                squaredDistances = new double[n * n];
+                goalDistances = new double[n * goalPositions.length];
+                knownDistances = new long[(n * n + 63) >>> 6];
+                knownGoalDistances = new long[(n * goalPositions.length + 63) >>> 6];
+                knownPasses = new long[(n * n + 63) >>> 6];
+                feasiblePasses = new long[(n * n + 63) >>> 6];
+            } else {
+                Arrays.fill(knownDistances, 0);
+                Arrays.fill(knownGoalDistances, 0);
+                Arrays.fill(knownPasses, 0);
+            }
+            measurementsValid = true;
+        }
+        return slot;
     }
 
     public double distanceToOwnGoal(Vertex player) {
-        double goalX = 0;
-        double goalY = (player.team == 'A') ? -bound : bound;
-        double goalZ = 0;
-        return Math.sqrt(Math.pow(player.x - goalX, 2) + Math.pow(player.y - goalY, 2) + Math.pow(player.z - goalZ, 2));
+        return Math.sqrt(squaredDistanceToGoal(player, player.team == 'A' ? 0 : 1));
     }
 
+    // Returns a copy; code in this class reads the shared table through goalPosition
     public double[] getGoalCoordinates(int goalIndex) {
-        double[] coordinates = new double[3];
+        return goalPosition(goalIndex).clone();
+    }
+
+    // Shared row of the goal table, not to be modified
+    private double[] goalPosition(int goalIndex) {
+        return goalIndex >= 0 && goalIndex < goalPositions.length ? goalPositions()[goalIndex] : NO_GOAL;
+    }
+
+    private double[][] goalPositions() {
+        if (Double.compare(bound, goalPositionsBound) != 0) {
+            for (int g = 0; g < goalPositions.length; g++) {
+                writeGoalCoordinates(g, goalPositions[g]);
+            }
+            goalPositionsBound = bound;
+        }
+        return goalPositions;
+    }
+
+    // For "closer than" checks, which need no square root
+    private double squaredDistanceToGoal(Vertex player, int goalIndex) {
+        double[] goal = goalPosition(goalIndex);
+        double dx = player.x - goal[0];
+        double dy = player.y - goal[1];
+        double dz = player.z - goal[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void writeGoalCoordinates(int goalIndex, double[] coordinates) {
         switch (goalIndex) {
             case 0: // x = 0, y = -bound, z = 0
                 coordinates[0] = 0;
@@ -481,7 +857,6 @@ public final class SoccerSimulation {
                 coordinates[1] = 0;
                 coordinates[2] = -bound;
         }
-        return coordinates;
     }
 
     public void movePlayer(Vertex player, double dx, double dy, double dz) {
@@ -501,25 +876,20 @@ public final class SoccerSimulation {
         
         // Find the closest opponent goal
         int closestGoalIndex = teamGoalIndex;
-        double minDistance = Double.MAX_VALUE;
+        double minSquaredDistance = Double.MAX_VALUE;
         
         for (int i = 0; i < numGoals; i++) {
             if (i != teamGoalIndex) {
-                double[] goalCoords = getGoalCoordinates(i);
-                double distance = Math.sqrt(
-                    Math.pow(player.x - goalCoords[0], 2) +
-                    Math.pow(player.y - goalCoords[1], 2) +
-                    Math.pow(player.z - goalCoords[2], 2)
-                );
-                if (distance < minDistance) {
-                    minDistance = distance;
+                double squaredDistance = squaredDistanceToGoal(player, i);
+                if (squaredDistance < minSquaredDistance) {
+                    minSquaredDistance = squaredDistance;
                     closestGoalIndex = i;
                 }
             }
         }
         
         // Move towards the closest goal
-        double[] goalCoords = getGoalCoordinates(closestGoalIndex);
+        double[] goalCoords = goalPosition(closestGoalIndex);
         double dx = goalCoords[0] - player.x;
         double dy = goalCoords[1] - player.y;
         double dz = goalCoords[2] - player.z;
@@ -537,21 +907,30 @@ public final class SoccerSimulation {
     }
 
     public boolean canPass(Vertex passer, Vertex receiver) {
+        int i = measuredSlot(passer);
+        int j = measuredSlot(receiver);
+        if (i < 0 || j < 0) {
+            return computeCanPass(passer, receiver);
+        }
+        int pair = i * measuredPlayers + j;
+        if ((knownPasses[pair >>> 6] & (1L << pair)) == 0) {
+            if (computeCanPass(passer, receiver)) {
+                feasiblePasses[pair >>> 6] |= 1L << pair;
+            } else {
+                feasiblePasses[pair >>> 6] &= ~(1L << pair);
+            }
+            knownPasses[pair >>> 6] |= 1L << pair;
+        }
+        return (feasiblePasses[pair >>> 6] & (1L << pair)) != 0;
+    }
+
+    private boolean computeCanPass(Vertex passer, Vertex receiver) {
         // Calculate social radius for this pass
-        double dx = passer.x - receiver.x;
-        double dy = passer.y - receiver.y;
-        double dz = passer.z - receiver.z;
-        double distance = Math.sqrt(dx*dx + dy*dy + dz*dz);
+        double distance = Math.sqrt(squaredDistance(passer, receiver));
         double socialRadius = Math.pow(distance, 0.25); // As per requirements: ((passer.x-receiver.x)^2 + (passer.y - receiver.y)^2)^(1/4)
         
         // Count opponents within social radius of the receiver
-        List<Vertex> opponents = getOpponents(receiver);
-        int socialCount = 0;
-        for (Vertex opponent : opponents) {
-            if (distanceBetween(receiver, opponent) <= socialRadius) {
-                socialCount++;
-            }
-        }
+        int socialCount = grid.countWithin(receiver.x, receiver.y, receiver.z, socialRadius, true, receiver.team);
         // Check if pass is possible based on social count
         return socialCount <= 1; // Guaranteed if 0, 50% chance if 1, impossible if >1
     }
@@ -662,43 +1041,20 @@ public final class SoccerSimulation {
         double dz = 0;
         
         // Check if there are opponents closer to their goal
-        List<Vertex> opponents = getOpponents(player);
-        boolean hasCloserOpponent = false;
+        int slot = packedState ? world.slotOf(player) : -1;
+        boolean hasCloserOpponent = slot >= 0
+            ? world.anyCloserToGoal(world.squaredDistanceToGoal(slot), player.team)
+            : hasOpponentCloserToGoal(player);
         
-        for (Vertex opponent : opponents) {
-            int opponentGoalIndex = getOpponentGoalIndex(opponent.team);
-            double[] opponentGoalCoords = getGoalCoordinates(opponentGoalIndex);
-            double opponentDistanceToGoal = Math.sqrt(
-                Math.pow(opponent.x - opponentGoalCoords[0], 2) +
-                Math.pow(opponent.y - opponentGoalCoords[1], 2) +
-                Math.pow(opponent.z - opponentGoalCoords[2], 2)
-            );
-            
-            int playerGoalIndex = getOpponentGoalIndex(player.team);
-            double[] playerGoalCoords = getGoalCoordinates(playerGoalIndex);
-            double playerDistanceToGoal = Math.sqrt(
-                Math.pow(player.x - playerGoalCoords[0], 2) +
-                Math.pow(player.y - playerGoalCoords[1], 2) +
-                Math.pow(player.z - playerGoalCoords[2], 2)
-            );
-            
-            if (opponentDistanceToGoal < playerDistanceToGoal) {
-                hasCloserOpponent = true;
-                break;
-            }
-        }
-        
-        if (hasCloserOpponent && Math.random() < 0.5) {
+        if (hasCloserOpponent && random.nextDouble() < 0.5) {
             // Lose the ball
-            List<Vertex> nearbyOpponents = opponents.stream()
-                .filter(opponent -> distanceBetween(player, opponent) <= adjacentRadius)
-                .collect(Collectors.toList());
+            List<Vertex> nearbyOpponents = getAdjacentOpponents(player);
             
             if (!nearbyOpponents.isEmpty()) {
                 Vertex closestOpponent = nearbyOpponents.get(0);
                 closestOpponent.hasBall = true;
                 player.hasBall = false;
-                ballController = closestOpponent;
+                setBallController(closestOpponent);
                 return false;
             }
         }
@@ -707,18 +1063,48 @@ public final class SoccerSimulation {
         movePlayer(player, dx, dy, dz);
         return true;
     }
+    
+    private boolean hasOpponentCloserToGoal(Vertex player) {
+        List<Vertex> opponents = getOpponents(player);
+        boolean hasCloserOpponent = false;
+        double playerSquaredDistance = squaredDistanceToGoal(player, getOpponentGoalIndex(player.team));
+        
+        for (Vertex opponent : opponents) {
+            int opponentGoalIndex = getOpponentGoalIndex(opponent.team);
+            if (squaredDistanceToGoal(opponent, opponentGoalIndex) < playerSquaredDistance) {
+                hasCloserOpponent = true;
+                break;
+            }
+        }
+        return hasCloserOpponent;
+    }
 
 private void resetAfterGoal(StartingScenario scenario) {
     // Reset player positions based on the scenario
     // For simplicity, we'll just use the same initialization logic
-    List<Integer> teamSizes = new ArrayList<>();
+    resetSizes.clear();
     for (List<Vertex> team : teams) {
-        teamSizes.add(team.size());
+        resetSizes.add(team.size());
+    }
+    if (formations != null) {
+        initializeTeamsWithFormations(resetSizes, formations, scenario); // Back into the match's formations
+    } else {
+        initializeTeams(resetSizes, scenario);
     }
-    initializeTeams(teamSizes, scenario);
 }
 
     public SimulationResult runMultiTeamSimulation(List<SoccerStrategy> strategies, StartingScenario scenario, int maxIterations) {
+        return runMultiTeamSimulation(strategies, scenario, maxIterations, 0, null);
+    }
+
+    /**
+     * Plays until a strategy scores 3 goals, or stops early once maxIterations have run,
+     * once timeoutNanos of wall-clock time have passed (0 for no deadline), or once the
+     * token is cancelled (null for none). The result's outcome says which of these ended it.
+     */
+    public SimulationResult runMultiTeamSimulation(List<SoccerStrategy> strategies, StartingScenario scenario,
+                                                   int maxIterations, long timeoutNanos,
+                                                   CancellationToken cancellation) {
         // Initialize teams based on the number of strategies
         List<Integer> teamSizes = new ArrayList<>();
         for (int i = 0; i < strategies.size(); i++) {
@@ -727,6 +1113,22 @@ private void resetAfterGoal(StartingScenario scenario) {
         
         // Initialize the simulation
         initializeTeams(teamSizes, scenario);
+        return runInitializedSimulation(strategies, scenario, maxIterations, timeoutNanos, cancellation);
+    }
+
+    /**
+     * Plays like runMultiTeamSimulation, but starts from the teams the last initializeTeams
+     * or initializeTeamsWithFormations call set up, one per strategy. After a goal the teams
+     * are reset the same way they were initialized.
+     */
+    public SimulationResult runInitializedSimulation(List<SoccerStrategy> strategies, StartingScenario scenario,
+                                                     int maxIterations, long timeoutNanos,
+                                                     CancellationToken cancellation) {
+        if (teams.size() != strategies.size()) {
+            throw new IllegalStateException("Initialized " + teams.size() + " teams for "
+                    + strategies.size() + " strategies");
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
         
         // Run the simulation for the specified number of iterations
         int iterations = 0;
@@ -743,7 +1145,19 @@ private void resetAfterGoal(StartingScenario scenario) {
         successfulPasses = failedPasses = 0;
         totalMovingDistance = 0;
         
-        while (true) {
+        SimulationResult.Outcome outcome = SimulationResult.Outcome.ITERATION_LIMIT;
+        while (iterations < maxIterations) {
+            // Check the clock only every 64 iterations; one iteration is far shorter than any sensible deadline
+            if ((iterations & 63) == 0) {
+                if (cancellation != null && cancellation.isCancelled()) {
+                    outcome = SimulationResult.Outcome.CANCELLED;
+                    break;
+                }
+                if (timeoutNanos > 0 && System.nanoTime() - deadline >= 0) {
+                    outcome = SimulationResult.Outcome.DEADLINE;
+                    break;
+                }
+            }
             // Apply each strategy in turn
             boolean goalScored = simulateIteration(strategies);
             
@@ -760,6 +1174,7 @@ private void resetAfterGoal(StartingScenario scenario) {
                 // Check if a strategy has won
                 if (strategyScores.get(scoringStrategy) >= 3) { // First to 3 goals wins
                     winningStrategy = scoringStrategy;
+                    outcome = SimulationResult.Outcome.WON;
                     break;
                 }
                 resetAfterGoal(scenario);
@@ -776,7 +1191,7 @@ private void resetAfterGoal(StartingScenario scenario) {
                     winningStrategy = entry.getKey();
                 }
             }
-        }return new SimulationResult(winningStrategy, iterations, strategyScores, teamScores,
+        }return new SimulationResult(winningStrategy, outcome, iterations, strategyScores, teamScores,
                 successfulPasses, failedPasses, totalMovingDistance);
     }
 
@@ -801,29 +1216,28 @@ private void resetAfterGoal(StartingScenario scenario) {
         if (canPass(passer, receiver)) {
             double successProbability = 1.0;
 
-            for (Vertex opponent : getOpponents(passer)) {
-                if (distanceToLine(opponent, passer, receiver) < adjacentRadius) {
+            if (packedState) {
+                int blockers = world.countNearSegment(passer.x, passer.y, passer.z,
+                    receiver.x, receiver.y, receiver.z, adjacentRadius, passer.team);
+                for (int i = 0; i < blockers; i++) {
                     successProbability *= 0.8; // Reduce success probability for each opponent
                 }
+            } else {
+                for (Vertex opponent : getOpponents(passer)) {
+                    if (distanceToLine(opponent, passer, receiver) < adjacentRadius) {
+                        successProbability *= 0.8; // Reduce success probability for each opponent
+                    }
+                }
             }
-            if (Math.random() < successProbability) {
-                ballController = receiver;
+            if (random.nextDouble() < successProbability) {
+                setBallController(receiver);
                 successfulPasses++;
                 return true;
             } else {
                 // Pass intercepted by closest opponent
-                Vertex closestOpponent = null;
-                double minDistance = Double.MAX_VALUE;
-                List<Vertex> opponents = getOpponents(passer);
-                for (Vertex opponent : opponents) {
-                    double dist = distanceBetween(receiver, opponent);
-                    if (dist < minDistance) {
-                        minDistance = dist;
-                        closestOpponent = opponent;
-                    }
-                }
+                Vertex closestOpponent = grid.nearest(receiver.x, receiver.y, receiver.z, passer.team);
                 if (closestOpponent != null) {
-                    ballController = closestOpponent;
+                    setBallController(closestOpponent);
                     currentTeamWithBall = (currentTeamWithBall + 1) % teams.size(); // Switch team
                 }
                 failedPasses++;
@@ -874,67 +1288,74 @@ private void resetAfterGoal(StartingScenario scenario) {
 
     public boolean shoot(Vertex shooter) {
         int goalIndex = teamGoals.getOrDefault(shooter.team, shooter.team - 'A');
-        double[] goalCoords = getGoalCoordinates((goalIndex + 1) % numGoals); // Opponent's goal
+        double[] goalCoords = goalPosition((goalIndex + 1) % numGoals); // Opponent's goal
         double dx = goalCoords[0] - shooter.x;
         double dy = goalCoords[1] - shooter.y;
         double dz = goalCoords[2] - shooter.z;
         double distanceToGoal = Math.sqrt(dx*dx + dy*dy + dz*dz);
         double successProbability = 1 - (distanceToGoal / (2 * boundX));
-        List<Vertex> opponents = getOpponents(shooter);
+        if (packedState) {
+            int blockers = world.countNearSegment(shooter.x, shooter.y, shooter.z,
+                goalCoords[0], goalCoords[1], goalCoords[2], adjacentRadius, shooter.team);
+            for (int i = 0; i < blockers; i++) {
+                successProbability *= 0.7; // Reduce success probability for each opponent
+            }
+        } else {
+            List<Vertex> opponents = getOpponents(shooter);
 
-        for (Vertex opponent : opponents) {
-            double x0 = opponent.x;
-            double y0 = opponent.y;
-            double z0 = opponent.z;
-            double x1 = shooter.x;
-            double y1 = shooter.y;
-            double z1 = shooter.z;
-            double x2 = goalCoords[0];
-            double y2 = goalCoords[1];
-            double z2 = goalCoords[2];
+            for (Vertex opponent : opponents) {
+                double x0 = opponent.x;
+                double y0 = opponent.y;
+                double z0 = opponent.z;
+                double x1 = shooter.x;
+                double y1 = shooter.y;
+                double z1 = shooter.z;
+                double x2 = goalCoords[0];
+                double y2 = goalCoords[1];
+                double z2 = goalCoords[2];
             
-            double lineVectorX = x2 - x1;
-            double lineVectorY = y2 - y1;
-            double lineVectorZ = z2 - z1;
+                double lineVectorX = x2 - x1;
+                double lineVectorY = y2 - y1;
+                double lineVectorZ = z2 - z1;
             
-            double segmentLengthSquared = lineVectorX*lineVectorX + lineVectorY*lineVectorY + lineVectorZ*lineVectorZ;
+                double segmentLengthSquared = lineVectorX*lineVectorX + lineVectorY*lineVectorY + lineVectorZ*lineVectorZ;
             
-            double distanceToLane;
-            if (segmentLengthSquared == 0) {
-                distanceToLane = Math.sqrt((x0-x1)*(x0-x1) + (y0-y1)*(y0-y1) + (z0-z1)*(z0-z1));
-            } else {
-                // Calculate projection of point onto line
-                double t = ((x0-x1)*lineVectorX + (y0-y1)*lineVectorY + (z0-z1)*lineVectorZ) / segmentLengthSquared;
-                
-                if (t < 0) {
-                    // Closest point is start of segment
+                double distanceToLane;
+                if (segmentLengthSquared == 0) {
                     distanceToLane = Math.sqrt((x0-x1)*(x0-x1) + (y0-y1)*(y0-y1) + (z0-z1)*(z0-z1));
-                } else if (t > 1) {
-                    // Closest point is end of segment
-                    distanceToLane = Math.sqrt((x0-x2)*(x0-x2) + (y0-y2)*(y0-y2) + (z0-z2)*(z0-z2));
                 } else {
-                    // Closest point is on segment
-                    double projX = x1 + t * lineVectorX;
-                    double projY = y1 + t * lineVectorY;
-                    double projZ = z1 + t * lineVectorZ;
-                    distanceToLane = Math.sqrt((x0-projX)*(x0-projX) + (y0-projY)*(y0-projY) + (z0-projZ)*(z0-projZ));
+                    // Calculate projection of point onto line
+                    double t = ((x0-x1)*lineVectorX + (y0-y1)*lineVectorY + (z0-z1)*lineVectorZ) / segmentLengthSquared;
+                
+                    if (t < 0) {
+                        // Closest point is start of segment
+                        distanceToLane = Math.sqrt((x0-x1)*(x0-x1) + (y0-y1)*(y0-y1) + (z0-z1)*(z0-z1));
+                    } else if (t > 1) {
+                        // Closest point is end of segment
+                        distanceToLane = Math.sqrt((x0-x2)*(x0-x2) + (y0-y2)*(y0-y2) + (z0-z2)*(z0-z2));
+                    } else {
+                        // Closest point is on segment
+                        double projX = x1 + t * lineVectorX;
+                        double projY = y1 + t * lineVectorY;
+                        double projZ = z1 + t * lineVectorZ;
+                        distanceToLane = Math.sqrt((x0-projX)*(x0-projX) + (y0-projY)*(y0-projY) + (z0-projZ)*(z0-projZ));
+                    }
+                }
+                if (distanceToLane < adjacentRadius) {
+                    successProbability *= 0.7; // Reduce success probability for each opponent
                 }
-            }
-            if (distanceToLane < adjacentRadius) {
-                successProbability *= 0.7; // Reduce success probability for each opponent
             }
         }
-        if (Math.random() < successProbability) {
+        if (random.nextDouble() < successProbability) {
             return true;
         } else {// Shot missed, giving to the player closest to the goal
-            Double minDistance = Double.MAX_VALUE;
-            double distance;
+            double minSquaredDistance = Double.MAX_VALUE;
             Vertex closestOpponent = null;
             
             for(Vertex opponent: players){
-                distance = opponent.distanceToGoal(dx, dy, dz, goalIndex);
-                if (opponent.distanceToGoal(dx, dy, dz, goalIndex) < minDistance) {
-                    minDistance = distance;
+                double squaredDistance = opponent.squaredDistanceToGoal(dx, dy, dz, goalIndex);
+                if (squaredDistance < minSquaredDistance) {
+                    minSquaredDistance = squaredDistance;
                     closestOpponent = opponent;
                 }
             }
@@ -945,61 +1366,133 @@ private void resetAfterGoal(StartingScenario scenario) {
 
     public double distanceToOpponentGoal(Vertex player) {
         int goalIndex = teamGoals.getOrDefault(player.team, player.team - 'A');
-        double[] goalCoords = getGoalCoordinates((goalIndex + 1) % numGoals); // Opponent's goal
-        
-        double dx = goalCoords[0] - player.x;
-        double dy = goalCoords[1] - player.y;
-        double dz = goalCoords[2] - player.z;
-        return Math.sqrt(dx*dx + dy*dy + dz*dz);
+        int opponentGoal = (goalIndex + 1) % numGoals;
+        int slot = measuredSlot(player);
+        if (slot < 0 || opponentGoal < 0 || opponentGoal >= goalPositions.length) {
+            return computeDistanceToGoal(player, opponentGoal);
+        }
+        int entry = slot * goalPositions.length + opponentGoal;
+        if ((knownGoalDistances[entry >>> 6] & (1L << entry)) == 0) {
+            goalDistances[entry] = computeDistanceToGoal(player, opponentGoal);
+            knownGoalDistances[entry >>> 6] |= 1L << entry;
+        }
+        return goalDistances[entry];
+    }
+
+    private double computeDistanceToGoal(Vertex player, int goal) {
+        return Math.sqrt(squaredDistanceToGoal(player, goal));
     }
 
     public int countOpponentsInPenaltyArea(char team) {
         int goalIndex = teamGoals.getOrDefault(team, team - 'A');
-        double[] goalCoords = getGoalCoordinates((goalIndex + 1) % numGoals); // Opponent's goal
-        
-        List<Vertex> opponents = new ArrayList<>();
-        for (List<Vertex> t : teams) {
-            if (!t.isEmpty() && t.get(0).team != team) {
-                opponents.addAll(t);
-            }
-        }
-        int count = 0;
-        for (Vertex opponent : opponents) {
-            double dx = goalCoords[0] - opponent.x;
-            double dy = goalCoords[1] - opponent.y;
-            double dz = goalCoords[2] - opponent.z;
-            double distance = Math.sqrt(dx*dx + dy*dy + dz*dz);   
-            if (distance < penaltyAreaDistance) {//within penalty area
-                count++;
-            }
-        }return count;
+        double[] goalCoords = goalPosition((goalIndex + 1) % numGoals); // Opponent's goal
+        // Opponents strictly within the penalty area
+        return grid.countWithin(goalCoords[0], goalCoords[1], goalCoords[2], penaltyAreaDistance, false, team);
     }
 
     public List<Vertex> getAdjacentOpponents(Vertex player) {
-        List<Vertex> opponents = getOpponents(player);
         List<Vertex> adjacentOpponents = new ArrayList<>();
-        
-        for (Vertex opponent : opponents) {
-            if (distanceBetween(player, opponent) <= adjacentRadius) {
-                adjacentOpponents.add(opponent);
-            }
-        }return adjacentOpponents;
+        grid.collectWithin(player.x, player.y, player.z, adjacentRadius, true, player.team, adjacentOpponents);
+        return adjacentOpponents;
+    }
+    
+    // Whether getAdjacentOpponents would be non-empty, without building the list
+    public boolean hasAdjacentOpponents(Vertex player) {
+        return grid.countWithin(player.x, player.y, player.z, adjacentRadius, true, player.team) > 0;
     }
     public double calculateSocialRadius(Vertex player) {
-        double dx = ballController.x - player.x;
-        double dy = ballController.y - player.y;
-        double dz = ballController.z - player.z;
-        return Math.sqrt(dx*dx + dy*dy + dz*dz);
+        return distanceBetween(ballController, player);
     }
     public int countOpponentsInSocialRadius(Vertex player, double socialRadius) {
-        int count = 0;
-        for (Vertex opponent : getOpponents(player)) {
-            double dx = opponent.x - player.x;
-            double dy = opponent.y - player.y;
-            double dz = opponent.z - player.z;
-            if (Math.sqrt(dx*dx + dy*dy + dz*dz) < socialRadius) {
-                count++;
+        return grid.countWithin(player.x, player.y, player.z, socialRadius, false, player.team);
+    }
+    
+    // SoccerUtil.isOffside for a current player against every opponent, with boundY = bound.
+    // The second-last defender comes from the offside line instead of sorting the opponents
+    public boolean isOffside(Vertex player) {
+        // Player must be on the same team as the ball controller
+        if (player.team != ballController.team) {
+            return false;
+        }
+        char team = player.team;
+        if (team != 'A' && team != 'B') {
+            return false;
+        }
+        // Player can't be offside in their own half, and must be ahead of the ball
+        if ((team == 'A' && player.y <= 0) || (team == 'B' && player.y >= 0)) {
+            return false;
+        }
+        if ((team == 'A' && player.y <= ballController.y) || (team == 'B' && player.y >= ballController.y)) {
+            return false;
+        }
+        // Need at least 2 defenders for offside
+        int secondLast = defensiveLine(team)[1];
+        if (secondLast < 0) {
+            return false;
+        }
+        double defenderY = players.get(secondLast).y;
+        return team == 'A' ? player.y > defenderY : player.y < defenderY;
+    }
+    
+    // y of the opponent of the given attacking team (A or B) nearest the goal line it attacks, NaN if none
+    public double lastDefenderY(char team) {
+        int slot = defensiveLine(team)[0];
+        return slot >= 0 ? players.get(slot).y : Double.NaN;
+    }
+    
+    public double secondLastDefenderY(char team) {
+        int slot = defensiveLine(team)[1];
+        return slot >= 0 ? players.get(slot).y : Double.NaN;
+    }
+    
+    private int[] defensiveLine(char team) {
+        if (team != 'A' && team != 'B') {
+            throw new IllegalArgumentException("Offside lines are kept for teams A and B, not " + team);
+        }
+        if (Double.compare(bound, defensiveLinesBound) != 0) {
+            Arrays.fill(defensiveLineStale, true);
+            defensiveLinesBound = bound;
+        }
+        int t = team - 'A';
+        if (defensiveLineStale[t]) {
+            int[] line = defensiveLines[t];
+            line[0] = -1;
+            line[1] = -1;
+            for (int slot = 0; slot < players.size(); slot++) {
+                if (players.get(slot).team != team) {
+                    placeDefender(t, slot);
+                }
             }
-        }return count;
+            defensiveLineStale[t] = false;
+        }
+        return defensiveLines[t];
+    }
+    
+    private void defenderMoved(int t, int slot) {
+        int[] line = defensiveLines[t];
+        if (slot == line[0] || slot == line[1]) {
+            defensiveLineStale[t] = true;
+        } else {
+            placeDefender(t, slot);
+        }
+    }
+    
+    // Puts a defender not yet on the line in its place, if it is among the last two
+    private void placeDefender(int t, int slot) {
+        int[] line = defensiveLines[t];
+        if (line[0] < 0 || nearerGoalLine(t, slot, line[0])) {
+            line[1] = line[0];
+            line[0] = slot;
+        } else if (line[1] < 0 || nearerGoalLine(t, slot, line[1])) {
+            line[1] = slot;
+        }
+    }
+    
+    // Whether defender a comes before b in SoccerUtil.isOffside's order: distance to the
+    // attacked goal line, then list order
+    private boolean nearerGoalLine(int t, int a, int b) {
+        double goalY = t == 0 ? bound : -bound;
+        int order = Double.compare(Math.abs(goalY - players.get(a).y), Math.abs(goalY - players.get(b).y));
+        return order < 0 || (order == 0 && a < b);
     }
 }
\ No newline at end of file
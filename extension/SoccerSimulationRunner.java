@@ -1,200 +1,383 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
 
 public class SoccerSimulationRunner {
     private static final int NUM_TRIALS = 1000;
+    static final int MAX_ITERATIONS = 1000; // Per trial; pairs that never score stop here
 
-    // Results storage
-    private static final Map<String, Double> strategyWinRates = new HashMap<>();
-    private static final Map<String, Double> strategyMovingDistances = new HashMap<>();
-    private static final Map<String, Double> strategySuccessfulPasses = new HashMap<>();
-    private static final Map<String, Double> strategyFailedPasses = new HashMap<>();
-    
-    public static void main(String[] args) {
-        System.out.println("Starting Soccer Simulation...");
-        
-        // Run simulations for different bounds
-        for (int bound = 1; bound <= 1000; bound++) {
-            if (bound % 10 == 0) {
-                System.out.println("Running simulations for bound: " + bound);
+    private static final long CHECKPOINT_INTERVAL_SECONDS = 60;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("worker")) {
+            runWorker(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Path checkpointPath = args.length > 2 && !args[2].equals("-") ? Paths.get(args[2]) : null;
+        String policyArg = args.length > 3 ? args[3] : "fixed";
+        String gridArg = args.length > 4 ? args[4] : "exact";
+        String workersArg = null;
+        Long shardTimeout = null;
+        Path storePath = null;
+        String virtualArg = null;
+        for (int i = 5; i < args.length; i++) {
+            if (args[i].equals("virtual") || args[i].startsWith("virtual=")) {
+                virtualArg = args[i];
+            } else if (args[i].startsWith("workers=")) {
+                workersArg = args[i].substring(8);
+            } else if (args[i].startsWith("timeout=")) {
+                shardTimeout = Long.parseLong(args[i].substring(8));
+            } else if (args[i].startsWith("store=")) {
+                storePath = Paths.get(args[i].substring(6));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (workersArg != null && storePath != null) {
+            throw new IllegalArgumentException("The trial store is only written by local sweeps");
+        }
+        if (workersArg == null && shardTimeout != null) {
+            throw new IllegalArgumentException("The shard timeout only applies to cluster sweeps");
+        }
+        TrialPolicy policy = trialPolicy(policyArg);
+        System.out.println("Starting Soccer Simulation on " + parallelism + " threads with seed " + seed
+                + ", " + policy + " trials, " + gridArg + " grid"
+                + (workersArg != null ? ", workers " + workersArg : "")
+                + (virtualArg != null ? ", trials on virtual threads" : "") + "...");
+
+        // Every (bound, adjacentRadius, teamSizes, scenario, strategies) cell of the grid is
+        // independent, so the engine splits the index range across a fork/join pool, or the
+        // cluster across worker processes that each run their own engine
+        SweepGrid grid = sweepGrid(seed, gridArg);
+        SweepCheckpoint checkpoint = null;
+        if (checkpointPath != null) {
+            // Resuming needs the seed of the original run; the checkpoint rejects any other
+            checkpoint = SweepCheckpoint.open(checkpointPath, grid, policy, CHECKPOINT_INTERVAL_SECONDS);
+            System.out.println("Checkpointing to " + checkpointPath + ", " + checkpoint.completedCells()
+                    + " of " + grid.size() + " cells already done");
+        }
+        SweepResults results;
+        if (workersArg != null) {
+            List<String> worker = new ArrayList<>(List.of("SoccerSimulationRunner", "worker",
+                    String.valueOf(parallelism), String.valueOf(seed), policyArg, gridArg));
+            if (virtualArg != null) {
+                worker.add(virtualArg);
             }
-            
-            // Run simulations for different adjacent radii
-            for (double adjacentRadius = 1.0; adjacentRadius <= 10.0; adjacentRadius += 0.125) {
-                if (bound % 10 == 0 && adjacentRadius == 1.0) {
-                    System.out.println("  Adjacent radius: " + adjacentRadius);
+            SweepCluster cluster = new SweepCluster(grid, policy, workerCommands(workersArg, worker));
+            if (shardTimeout != null) {
+                cluster.setShardTimeout(shardTimeout);
+            }
+            results = checkpoint != null ? cluster.run(checkpoint) : cluster.run();
+        } else {
+            SweepEngine engine = new SweepEngine(parallelism, policy);
+            TrialExecutor executor = trialExecutor(virtualArg);
+            engine.setTrialExecutor(executor);
+            TrialStore store = null;
+            try {
+                if (storePath != null) {
+                    store = TrialStore.open(storePath, grid.describe(policy));
+                    if (checkpoint != null) {
+                        checkpoint.attach(store); // Drops rows of cells the checkpoint will replay
+                    } else if (store.rows() > 0) {
+                        throw new IllegalStateException("Trial store " + storePath + " already holds "
+                                + store.rows() + " rows; resume with its checkpoint or use a new store");
+                    }
+                    System.out.println("Recording trials to " + storePath + ", " + store.rows() + " rows already stored");
+                    engine.setTrialStore(store);
+                }
+                results = checkpoint != null ? engine.run(grid, checkpoint) : engine.run(grid);
+            } finally {
+                engine.shutdown();
+                if (executor != null) {
+                    executor.close();
                 }
-                runSimulationsForTeamSizes(bound, adjacentRadius);
+                if (store != null) {
+                    store.close();
+                }
+            }
+        }
+        printResults(results);
+    }
+
+    static TrialPolicy trialPolicy(String name) {
+        return name.equals("adaptive") ? TrialPolicy.defaultAdaptive() : defaultTrialPolicy();
+    }
+
+    // "virtual" or "virtual=K" for K live simulations per CPU; none without the option
+    static TrialExecutor trialExecutor(String option) {
+        if (option == null) {
+            return null;
+        }
+        return option.startsWith("virtual=") ? new TrialExecutor(Integer.parseInt(option.substring(8)))
+                : new TrialExecutor();
+    }
+
+    // "exact" or "samples=N"
+    static SweepGrid sweepGrid(long seed, String mode) {
+        if (mode.startsWith("samples=")) {
+            return SweepGrid.defaultSample(seed, Integer.parseInt(mode.substring(8)));
+        }
+        if (!mode.equals("exact")) {
+            throw new IllegalArgumentException("Unknown grid: " + mode);
+        }
+        return SweepGrid.defaultGrid(seed);
+    }
+
+    /**
+     * Commands that start the cluster's workers: a number starts that many local JVMs,
+     * otherwise each comma-separated host gets one worker over ssh ("localhost" stays
+     * local). Remote hosts must see the classes at the same absolute class path.
+     */
+    static List<List<String>> workerCommands(String workers, List<String> workerArgs) {
+        List<String> java = new ArrayList<>(List.of(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath()));
+        java.addAll(workerArgs);
+        List<List<String>> commands = new ArrayList<>();
+        if (workers.chars().allMatch(Character::isDigit)) {
+            for (int i = 0; i < Integer.parseInt(workers); i++) {
+                commands.add(java);
+            }
+            return commands;
+        }
+        for (String host : workers.split(",")) {
+            if (host.equals("localhost")) {
+                commands.add(java);
+            } else {
+                List<String> remote = new ArrayList<>(List.of("ssh", host, "java", "-cp", classPath()));
+                remote.addAll(workerArgs);
+                commands.add(remote);
+            }
+        }
+        return commands;
+    }
+
+    private static String classPath() {
+        StringBuilder absolute = new StringBuilder();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            absolute.append(absolute.length() == 0 ? "" : File.pathSeparator)
+                    .append(Paths.get(entry).toAbsolutePath());
+        }
+        return absolute.toString();
+    }
+
+    // Serves shards to a coordinator over stdin and stdout; progress goes to stderr so it
+    // cannot corrupt the protocol stream
+    private static void runWorker(String[] args) throws IOException {
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        int parallelism = Integer.parseInt(args[0]);
+        SweepGrid grid = sweepGrid(Long.parseLong(args[1]), args[3]);
+        SweepEngine engine = new SweepEngine(parallelism, trialPolicy(args[2]));
+        TrialExecutor executor = trialExecutor(args.length > 4 ? args[4] : null);
+        engine.setTrialExecutor(executor);
+        try {
+            SweepWorker.serve(System.in, protocol, grid, engine);
+        } finally {
+            engine.shutdown();
+            if (executor != null) {
+                executor.close();
             }
         }
+    }
+
+    static void printResults(SweepResults results) {
         System.out.println("\n=== FINAL RESULTS ===");
         
         System.out.println("\nStrategy Win Rates:");
-        strategyWinRates.entrySet().stream()
+        results.strategyWinRates().entrySet().stream()
             .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
             .forEach(entry -> System.out.printf("%s: %.2f%%\n", entry.getKey(), entry.getValue() * 100));
         
         System.out.println("\nAverage Moving Distances:");
-        strategyMovingDistances.entrySet().stream()
+        results.strategyMovingDistances().entrySet().stream()
             .sorted(Map.Entry.comparingByValue())
             .forEach(entry -> System.out.printf("%s: %.2f\n", entry.getKey(), entry.getValue()));
         
         System.out.println("\nAverage Successful Passes:");
-        strategySuccessfulPasses.entrySet().stream()
+        results.strategySuccessfulPasses().entrySet().stream()
             .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
             .forEach(entry -> System.out.printf("%s: %.2f\n", entry.getKey(), entry.getValue()));
         
         System.out.println("\nAverage Failed Passes:");
-        strategyFailedPasses.entrySet().stream()
+        results.strategyFailedPasses().entrySet().stream()
             .sorted(Map.Entry.comparingByValue())
             .forEach(entry -> System.out.printf("%s: %.2f\n", entry.getKey(), entry.getValue()));
+        
+        PrecisionSummary precision = results.precision;
+        if (precision.cells() > 0) {
+            System.out.println("\nTrials:");
+            System.out.printf("%d trials over %d cells (%d to %d per cell)\n",
+                    precision.trials(), precision.cells(), precision.fewestTrials(), precision.mostTrials());
+            System.out.printf("%d trials hit the %d iteration limit without a winner\n",
+                    precision.timedOutTrials(), MAX_ITERATIONS);
+            System.out.printf("Widest 95%% half-widths: win rate %.4f, successful passes %.4f, failed passes %.4f\n",
+                    precision.widestWinRateHalfWidth(), precision.widestSuccessfulPassesHalfWidth(),
+                    precision.widestFailedPassesHalfWidth());
+        }
     }
     
-    private static void runSimulationsForTeamSizes(int bound, double adjacentRadius) {
-        // For 2 teams
-        for (int teamSize1 = 2; teamSize1 <= 11; teamSize1++) {
-            for (int teamSize2 = 2; teamSize2 <= 11; teamSize2++) {
-                List<Integer> teamSizes = Arrays.asList(teamSize1, teamSize2);
-                runSimulationsForTeamCombination(bound, adjacentRadius, teamSizes, 2);
-            }
+    static TrialPolicy defaultTrialPolicy() {
+        return TrialPolicy.fixed(NUM_TRIALS);
+    }
+    
+    // Plays every formation of the cell's team sizes, each on its own simulation instance,
+    // or with an executor each trial on one of the cell's pooled simulations. Trial seeds are drawn in order from the
+    // cell's stream, so a sweep with the same seed replays every trial exactly regardless
+    // of how cells and trials were scheduled across threads.
+    // Returns the ticks played, which the engine's cost model learns from
+    static long runCell(SweepCell cell, TrialPolicy policy, CancellationToken cancellation,
+                        TrialExecutor executor, TrialStore.Batch batch, SweepResults results) {
+        TrialSeeds seeds = new TrialSeeds(cell.seed);
+        // Simulations the executor's trials reuse; no more than maxLive are ever in use at once
+        Queue<SoccerSimulation> simulations = executor == null ? null
+                : new ArrayBlockingQueue<>(executor.getMaxLiveSimulations());
+        int trials = 0;
+        int[] timedOut = new int[1];
+        long[] ticks = new long[1];
+        double[] halfWidths = new double[3]; // Widest team win rate, successful and failed passes intervals
+        // Result key ids of every team, looked up once per cell
+        int[] keyIds = new int[cell.strategies.size()];
+        for (int i = 0; i < keyIds.length; i++) {
+            keyIds[i] = results.keyId(cell.strategies.get(i).name + "_Team" + (i + 1));
         }
-        
-        // For 3 to 6 teams, generate all combinations of team sizes
-        for (int numTeams = 3; numTeams <= 6; numTeams++) {
-            // Generate all combinations of team sizes
-            int[] teamSizesArray = new int[numTeams];
-            int maxTeamSize = 11; // Maximum team size
-            
-            // Initialize with minimum team size
-            for (int i = 0; i < numTeams; i++) {
-                teamSizesArray[i] = 2;
+        int formation = 0;
+        for (List<List<Integer>> distribution : getAllInitialDistributions(cell.teamSizes)) {
+            if (batch != null) {
+                batch.select(cell.index, formation++);
             }
-            
-            do {
-                List<Integer> teamSizes = new ArrayList<>();
-                for (int size : teamSizesArray) {
-                    teamSizes.add(size);
-                }
-                runSimulationsForTeamCombination(bound, adjacentRadius, teamSizes, numTeams);
-                
-                // Increment the team sizes array
-                for (int i = 0; i < numTeams; i++) {
-                    if (teamSizesArray[i] < maxTeamSize) {
-                        teamSizesArray[i]++;
-                        break;
-                    } else {
-                        teamSizesArray[i] = 2;
-                        if (i == numTeams - 1) {
-                            // All teams reached max size, break out of loop
-                            break;
-                        }
-                    }
-                }
-            } while (teamSizesArray[numTeams - 1] <= maxTeamSize);
+            trials += runTrials(cell, keyIds, distribution, seeds, policy, cancellation, executor, simulations,
+                    halfWidths, timedOut, ticks, batch, results);
         }
+        results.addCellPrecision(new CellPrecision(cell.index, trials, timedOut[0],
+                halfWidths[0], halfWidths[1], halfWidths[2]));
+        return ticks[0];
     }
     
-    private static void runSimulationsForTeamCombination(int bound, double adjacentRadius, 
-                                                      List<Integer> teamSizes, int numGoals) {
-        List<List<SoccerStrategy>> strategyCombs = getAllStrategyCombinations(teamSizes.size());
-        List<List<List<Integer>>> initialDistributions = getAllInitialDistributions(teamSizes);
+    // Returns the number of trials played, widening halfWidths to this formation's intervals
+    // and counting trials that ran out of iterations into timedOut and their ticks into ticks
+    private static int runTrials(SweepCell cell, int[] keyIds, List<List<Integer>> distributions,
+                               TrialSeeds seeds, TrialPolicy policy, CancellationToken cancellation,
+                               TrialExecutor executor, Queue<SoccerSimulation> simulations,
+                               double[] halfWidths, int[] timedOut, long[] ticks,
+                               TrialStore.Batch batch, SweepResults results) {
+        double totalMovingDistance = 0;
+        int totalSuccessfulPasses = 0;
+        int totalFailedPasses = 0;
+        RunningStats[] wins = new RunningStats[keyIds.length]; // Per team: 1 when it won the trial, else 0
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = new RunningStats();
+        }
+        RunningStats successfulPasses = new RunningStats();
+        RunningStats failedPasses = new RunningStats();
         
-        SoccerSimulation.StartingScenario[] scenarios = new SoccerSimulation.StartingScenario[] {
-            SoccerSimulation.StartingScenario.GOAL_KICK,
-            SoccerSimulation.StartingScenario.CORNER_KICK,
-            SoccerSimulation.StartingScenario.KICK_OFF
-        };
-        for (SoccerSimulation.StartingScenario scenario : scenarios) {
-            for (List<SoccerStrategy> strategies : strategyCombs) {
-                for (List<List<Integer>> distribution : initialDistributions) {
-                    runTrials(new SoccerSimulation(bound, adjacentRadius, numGoals), 
-                    teamSizes, strategies, distribution, scenario);
+        int trials = 0;
+        SoccerSimulation simulation = executor == null ? newSimulation(cell) : null;
+        TrialExecutor.Trials played = executor == null ? null
+                : executor.start(seeds, policy, seed -> playPooledTrial(simulations, cell, distributions, seed, cancellation));
+        try {
+            while (!policy.shouldStop(wins, successfulPasses, failedPasses)) {
+                SoccerSimulation.SimulationResult result = played != null ? played.next()
+                        : playTrial(simulation, cell, distributions, seeds.next(), cancellation);
+                if (result.outcome == SoccerSimulation.SimulationResult.Outcome.CANCELLED) {
+                    throw new CancellationException("Sweep cancelled");
+                }
+                if (result.timedOut) {
+                    timedOut[0]++;
+                }
+                ticks[0] += result.totalIterations;
+                if (batch != null) {
+                    try {
+                        batch.add(trials, cell.teamSizes.size(), result);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not write trial store", e);
+                    }
                 }
+                int winner = result.winningTeam();
+                for (int i = 0; i < wins.length; i++) {
+                    wins[i].add(i == winner ? 1 : 0);
+                }
+                totalMovingDistance += result.totalMovingDistance;
+                totalSuccessfulPasses += result.successfulPasses;
+                totalFailedPasses += result.failedPasses;
+                successfulPasses.add(result.successfulPasses);
+                failedPasses.add(result.failedPasses);
+                trials++;
+            }
+        } finally {
+            if (played != null) {
+                played.close(); // Waits for trials started past the stopping point and returns their seeds
             }
         }
-    }
-    private static void runTrials(SoccerSimulation simulation, List<Integer> teamSizes, 
-                               List<SoccerStrategy> strategies, List<List<Integer>> distributions,
-                               SoccerSimulation.StartingScenario scenario) {
-        int totalWins = 0;
-        double totalMovingDistance = 0;
-        int totalSuccessfulPasses = 0;
-        int totalFailedPasses = 0;
+        double z = policy.isFixed() ? 1.96 : policy.z; // Fixed runs still report 95% intervals
+        for (RunningStats teamWins : wins) {
+            halfWidths[0] = Math.max(halfWidths[0], teamWins.halfWidth(z));
+        }
+        halfWidths[1] = Math.max(halfWidths[1], successfulPasses.halfWidth(z));
+        halfWidths[2] = Math.max(halfWidths[2], failedPasses.halfWidth(z));
         
-        for (int trial = 0; trial < NUM_TRIALS; trial++) {
-            simulation.initializeTeamsWithFormations(teamSizes, distributions, scenario);
-            
-            SoccerSimulation.SimulationResult result = simulation.runMultiTeamSimulation(strategies, scenario, 1000);
-            totalWins++;
-            totalMovingDistance += result.totalMovingDistance;
-            totalSuccessfulPasses += result.successfulPasses;
-            totalFailedPasses += result.failedPasses;
+        double avgMovingDistance = trials > 0 ? totalMovingDistance / trials : 0;
+        double avgSuccessfulPasses = trials > 0 ? (double) totalSuccessfulPasses / trials : 0;
+        double avgFailedPasses = trials > 0 ? (double) totalFailedPasses / trials : 0;
+
+        for (int i = 0; i < keyIds.length; i++) {
+            results.record(keyIds[i], wins[i].mean(), avgMovingDistance, avgSuccessfulPasses, avgFailedPasses);
         }
-        double winRate = (double) totalWins / NUM_TRIALS;
-        double avgMovingDistance = totalWins > 0 ? totalMovingDistance / totalWins : 0;
-        double avgSuccessfulPasses = totalWins > 0 ? (double) totalSuccessfulPasses / totalWins : 0;
-        double avgFailedPasses = totalWins > 0 ? (double) totalFailedPasses / totalWins : 0;
+        return trials;
+    }
+
+    private static SoccerSimulation newSimulation(SweepCell cell) {
+        SoccerSimulation simulation = new SoccerSimulation(cell.bound, cell.adjacentRadius, cell.numGoals());
+        simulation.setPackedState(true); // Sweeps only read results, so use the packed kernels
+        return simulation;
+    }
 
-        for (int i = 0; i < strategies.size(); i++) {
-            String strategyName = strategies.get(i).name;
-            String key = strategyName + "_Team" + (i + 1);
-            
-            strategyWinRates.put(key, strategyWinRates.getOrDefault(key, 0.0) + winRate);
-            strategyMovingDistances.put(key, strategyMovingDistances.getOrDefault(key, 0.0) + avgMovingDistance);
-            strategySuccessfulPasses.put(key, strategySuccessfulPasses.getOrDefault(key, 0.0) + avgSuccessfulPasses);
-            strategyFailedPasses.put(key, strategyFailedPasses.getOrDefault(key, 0.0) + avgFailedPasses);
+    // Plays a trial on a pooled simulation, or a new one when every pooled one is busy. A
+    // simulation whose trial failed is dropped rather than pooled
+    private static SoccerSimulation.SimulationResult playPooledTrial(Queue<SoccerSimulation> simulations,
+                                                                     SweepCell cell, List<List<Integer>> distributions,
+                                                                     long seed, CancellationToken cancellation) {
+        SoccerSimulation simulation = simulations.poll();
+        if (simulation == null) {
+            simulation = newSimulation(cell);
         }
+        SoccerSimulation.SimulationResult result = playTrial(simulation, cell, distributions, seed, cancellation);
+        simulations.offer(simulation);
+        return result;
+    }
+
+    private static SoccerSimulation.SimulationResult playTrial(SoccerSimulation simulation, SweepCell cell,
+                                                               List<List<Integer>> distributions, long seed,
+                                                               CancellationToken cancellation) {
+        simulation.setRandom(new SimulationRandom(seed));
+        simulation.initializeTeamsWithFormations(cell.teamSizes, distributions, cell.scenario);
+        return simulation.runInitializedSimulation(cell.strategies, cell.scenario, MAX_ITERATIONS, 0, cancellation);
     }
     
-    private static List<List<SoccerStrategy>> getAllStrategyCombinations(int numTeams) {
-        List<SoccerStrategy> allStrategies = Arrays.asList(
+    static List<SoccerStrategy> allStrategies() {
+        return Arrays.asList(
             new ActivePressingStrategy(),
             new ShortPassStrategy(),
             new BallControlStrategy(),
             new VoronoiInspiredStrategy()
         );
-        List<List<SoccerStrategy>> combinations = new ArrayList<>();
-        generateStrategyCombinations(allStrategies, new ArrayList<>(), combinations, numTeams);
-        return combinations;
     }
-    private static void generateStrategyCombinations(List<SoccerStrategy> allStrategies, 
-                                                  List<SoccerStrategy> current,
-                                                  List<List<SoccerStrategy>> result, 
-                                                  int remaining) {
-        if (remaining == 0) {
-            result.add(new ArrayList<>(current));
-            return;
-        }
-        for (SoccerStrategy strategy : allStrategies) {
-            current.add(strategy);
-            generateStrategyCombinations(allStrategies, current, result, remaining - 1);
-            current.removeLast();
-        }
-    }
-    
-    private static List<List<List<Integer>>> getAllInitialDistributions(List<Integer> teamSizes) {
-        List<List<List<Integer>>> allDistributions = new ArrayList<>();
-        List<List<Integer>> currentDistribution = new ArrayList<>();
-        
-        for (int teamSize : teamSizes) {
-            List<List<Integer>> possibleFormations = generateAlignments(teamSize);
-            currentDistribution.add(possibleFormations.getFirst()); // Start with first formation
-        }
-        generateAllDistributions(teamSizes, 0, currentDistribution, allDistributions);
-        return allDistributions;
+
+    // Lazy product of the strategies over the teams; combinations are built as they are iterated
+    static CartesianProduct<SoccerStrategy> getAllStrategyCombinations(int numTeams) {
+        return CartesianProduct.power(allStrategies(), numTeams);
     }
     
-    private static void generateAllDistributions(List<Integer> teamSizes, int teamIndex,
-                                              List<List<Integer>> current,
-                                              List<List<List<Integer>>> result) {
-        if (teamIndex == teamSizes.size()) {
-            result.add(new ArrayList<>(current));
-            return;
-        }
-        List<List<Integer>> possibleFormations = generateAlignments(teamSizes.get(teamIndex));
-        for (List<Integer> formation : possibleFormations) {
-            current.set(teamIndex, formation);
-            generateAllDistributions(teamSizes, teamIndex + 1, current, result);
-        }
+    // Lazy product of the formations of every team, built one distribution at a time
+    static CartesianProduct<List<Integer>> getAllInitialDistributions(List<Integer> teamSizes) {
+        return CartesianProduct.formations(teamSizes);
     }
         public static List<List<Integer>> findCombinations(int target, int start, List<Integer> path, List<List<Integer>> result) {
         if (result == null) {
@@ -263,22 +446,6 @@ public class SoccerSimulationRunner {
         }
     }
     public static List<List<Integer>> generateAlignments(int teamSize){
-        Set<List<Integer>> allPermutations = new HashSet<>();
-        for(int sum=1; sum <= teamSize; sum ++) {
-            List<List<Integer>> combinations = findCombinations(teamSize, 1, null, null);
-
-            for (List<Integer> combination : combinations) {
-                Set<List<Integer>> perms = uniquePermutations(combination);
-                allPermutations.addAll(perms);
-            }
-            allPermutations.stream()
-                .sorted((a, b) -> {
-                    if (a.size() != b.size()) {
-                        return Integer.compare(a.size(), b.size());
-                    }
-                    return a.toString().compareTo(b.toString());
-                });
-            }
-        return new ArrayList<>(allPermutations);
+        return new ArrayList<>(CartesianProduct.compositions(teamSize));
     }
 }
\ No newline at end of file
@@ -1,32 +1,198 @@
 import java.util.List;
 
+/**
+ * A team's play. Strategies pick an Action for the ball controller and, for passes, the
+ * slot of a target in the simulation's players list; both go into the simulation's
+ * reusable Decision. The older String API (determineAction and findBestPassTarget) still
+ * works: decideAction and findPassTargetSlot fall back to it unless a strategy overrides them.
+ */
 public abstract class SoccerStrategy {
     protected String name;
-    
+
+    public enum Action {
+        PASS("pass"), SHOOT("shoot"), BREAKTHROUGH("breakthrough"), MOVE("move"), NONE("none");
+
+        public final String label; // The name determineAction uses
+
+        Action(String label) {
+            this.label = label;
+        }
+
+        public static Action of(String label) {
+            switch (label) {
+                case "pass": return PASS;
+                case "shoot": return SHOOT;
+                case "breakthrough": return BREAKTHROUGH;
+                case "move": return MOVE;
+                default: return NONE;
+            }
+        }
+    }
+
     public abstract void execute(SoccerSimulation simulation, Vertex ballController);
-    
+
     public boolean apply(SoccerSimulation simulation) {
         Vertex ballController = simulation.ballController;
         List<Vertex> teammates = simulation.getTeammates(ballController);
         List<Vertex> opponents = simulation.getOpponents(ballController);
-        
-        switch(determineAction(simulation, ballController, teammates, opponents)){
-        
-        case "pass":
-            return simulation.pass(ballController, findBestPassTarget(simulation, ballController, teammates, opponents));
-        case "shoot": return simulation.shoot(ballController);
-        case "breakthrough": 
+
+        Decision decision = beginDecision(simulation, ballController);
+        decision.action = decideAction(simulation, ballController, teammates, opponents);
+        switch (decision.action) {
+        case PASS:
+            decision.target = passTargetSlot(simulation, ballController, teammates, opponents);
+            // A pass with no target is dropped, as in perform
+            return decision.target >= 0 && simulation.pass(ballController, simulation.getPlayer(decision.target));
+        case SHOOT: return simulation.shoot(ballController);
+        case BREAKTHROUGH:
             return simulation.breakthrough(ballController);
-        case "move":
+        case MOVE:
             simulation.movePlayerTowardsOpponentGoal(ballController);
             return false;
         default: return false;
         }
     }
-    
-    protected abstract String determineAction(SoccerSimulation simulation, Vertex ballController, 
+
+    protected abstract String determineAction(SoccerSimulation simulation, Vertex ballController,
                                            List<Vertex> teammates, List<Vertex> opponents);
-    
-    protected abstract Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
+
+    protected abstract Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController,
                                               List<Vertex> teammates, List<Vertex> opponents);
-}
\ No newline at end of file
+
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController,
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        return Action.of(determineAction(simulation, ballController, teammates, opponents));
+    }
+
+    // Slot of the best pass target in the simulation's players list, or -1 if there is none
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController,
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
+        return target != null ? simulation.slotOf(target) : -1;
+    }
+
+    // Starts a decision for the ball controller; call it after any off-ball moves, just
+    // before decideAction
+    protected final Decision beginDecision(SoccerSimulation simulation, Vertex ballController) {
+        Decision decision = simulation.getDecision();
+        decision.strategy = this;
+        decision.ballController = ballController;
+        decision.positions = simulation.getPositionVersion();
+        decision.action = Action.NONE;
+        decision.target = -1;
+        decision.hasPassTarget = false;
+        decision.passTarget = -1;
+        return decision;
+    }
+
+    // findPassTargetSlot, scored once per decision: decideAction and the pass that follows
+    // share the target. Outside a decision begun for this ball controller, or once anyone
+    // has moved, it is scored afresh
+    protected final int passTargetSlot(SoccerSimulation simulation, Vertex ballController,
+                                       List<Vertex> teammates, List<Vertex> opponents) {
+        Decision decision = simulation.getDecision();
+        if (decision.strategy != this || decision.ballController != ballController
+                || decision.positions != simulation.getPositionVersion()) {
+            return findPassTargetSlot(simulation, ballController, teammates, opponents);
+        }
+        if (!decision.hasPassTarget) {
+            decision.passTarget = findPassTargetSlot(simulation, ballController, teammates, opponents);
+            decision.hasPassTarget = true;
+        }
+        return decision.passTarget;
+    }
+
+    // Carries out the decided action the way execute does: anything but a pass, shot or
+    // breakthrough moves the ball controller towards goal. A pass with no target is dropped
+    protected final void perform(SoccerSimulation simulation, Vertex ballController, Decision decision,
+                                 List<Vertex> teammates, List<Vertex> opponents) {
+        switch (decision.action) {
+            case PASS:
+                decision.target = passTargetSlot(simulation, ballController, teammates, opponents);
+                if (decision.target >= 0) {
+                    simulation.pass(ballController, simulation.getPlayer(decision.target));
+                }
+                break;
+            case SHOOT:
+                simulation.shoot(ballController);
+                break;
+            case BREAKTHROUGH:
+                simulation.breakthrough(ballController);
+                break;
+            default:
+                simulation.movePlayerTowardsOpponentGoal(ballController);
+                break;
+        }
+    }
+
+    // Stream-free kernels over player lists. Ties go to the earlier player, as they do with
+    // Stream.min and a stable sort, and scores compare as Double.compare orders them
+
+    // Index of the player closest to its opponent goal, skipping up to two players; -1 if none
+    protected static int indexClosestToOpponentGoal(SoccerSimulation simulation, List<Vertex> players,
+                                                    Vertex skip, Vertex alsoSkip) {
+        int best = -1;
+        double bestDistance = 0;
+        for (int i = 0; i < players.size(); i++) {
+            Vertex player = players.get(i);
+            if (player == skip || player == alsoSkip) {
+                continue;
+            }
+            double distance = simulation.distanceToOpponentGoal(player);
+            if (best < 0 || Double.compare(distance, bestDistance) < 0) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    // Index of the player nearest the target in the x-y plane; -1 for an empty list
+    protected static int indexNearestInPlane(List<Vertex> players, Vertex target) {
+        int best = -1;
+        double bestSquared = 0;
+        for (int i = 0; i < players.size(); i++) {
+            Vertex player = players.get(i);
+            double dx = player.x - target.x;
+            double dy = player.y - target.y;
+            double squared = dx * dx + dy * dy;
+            if (best < 0 || Double.compare(squared, bestSquared) < 0) {
+                best = i;
+                bestSquared = squared;
+            }
+        }
+        return best;
+    }
+
+    // Index of the player closest to the field's centre in the x-y plane among those with
+    // socialCount below the limit; -1 if none
+    protected static int indexNearestCentre(List<Vertex> players, int socialCountLimit) {
+        int best = -1;
+        double minSquaredDistance = Double.MAX_VALUE;
+        for (int i = 0; i < players.size(); i++) {
+            Vertex player = players.get(i);
+            if (player.socialCount < socialCountLimit) {
+                double squaredDistance = SoccerUtil.squaredDistanceToGoal(player, 0, 0);
+                if (squaredDistance < minSquaredDistance) {
+                    minSquaredDistance = squaredDistance;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The ball controller's current decision. Each simulation owns one and reuses it, since
+     * strategies are shared between simulations and keep no state.
+     */
+    public static final class Decision {
+        public Action action = Action.NONE;
+        public int target = -1; // Pass target's slot in the simulation's players list, -1 for none
+        private SoccerStrategy strategy;
+        private Vertex ballController;
+        private long positions; // The simulation's position version when the decision began
+        private boolean hasPassTarget;
+        private int passTarget;
+    }
+}
@@ -59,22 +59,30 @@ public class SoccerUtil {
             return false;
         }
         
-        // Find the second-to-last defender
-        List<Vertex> sortedOpponents = new ArrayList<>(opponents);
-        sortedOpponents.sort((o1, o2) -> {
-            // Sort by distance to their own goal
-            double d1 = Math.abs(goalY - o1.y);
-            double d2 = Math.abs(goalY - o2.y);
-            return Double.compare(d1, d2);
-        });
-        
         // Need at least 2 defenders for offside
-        if (sortedOpponents.size() < 2) {
+        if (opponents.size() < 2) {
             return false;
         }
         
-        // Get the second-to-last defender
-        Vertex secondLastDefender = sortedOpponents.get(1);
+        // Find the second-to-last defender: second by distance to their own goal, ties in list
+        // order as a stable sort would leave them, picked in one pass without sorting
+        Vertex lastDefender = null;
+        Vertex secondLastDefender = null;
+        double lastDistance = 0;
+        double secondLastDistance = 0;
+        for (int i = 0; i < opponents.size(); i++) {
+            Vertex opponent = opponents.get(i);
+            double distance = Math.abs(goalY - opponent.y);
+            if (lastDefender == null || Double.compare(distance, lastDistance) < 0) {
+                secondLastDefender = lastDefender;
+                secondLastDistance = lastDistance;
+                lastDefender = opponent;
+                lastDistance = distance;
+            } else if (secondLastDefender == null || Double.compare(distance, secondLastDistance) < 0) {
+                secondLastDefender = opponent;
+                secondLastDistance = distance;
+            }
+        }
         
         // Player is offside if they are closer to the goal line than both the ball and the second-to-last defender
         return (team == 'A' && player.y > secondLastDefender.y && player.y > ballController.y) || 
@@ -93,6 +101,13 @@ public class SoccerUtil {
         return Math.sqrt(dx * dx + dy * dy);
     }
     
+    // For "closer than" checks, which need no square root
+    public static double squaredDistanceToGoal(Vertex player, double goalX, double goalY) {
+        double dx = player.x - goalX;
+        double dy = player.y - goalY;
+        return dx * dx + dy * dy;
+    }
+    
     public static boolean canPass(Vertex passer, Vertex receiver, List<Vertex> opponents, double adjacentRadius) {
         double dx = receiver.x - passer.x;
         double dy = receiver.y - passer.y;
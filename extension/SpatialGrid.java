@@ -0,0 +1,266 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform-grid spatial hash over player positions. Cells are cubes of side cellSize
+ * (the simulation's adjacent radius) hashed into a power-of-two bucket table, with one
+ * chain link per player, so moving a player only relinks it when it changes cell.
+ *
+ * Queries visit the cells overlapping the search sphere, clamped to the box of cells
+ * that have ever been occupied since the last rebuild. When that would visit more cells
+ * than there are players, they scan the players directly instead. Players are numbered
+ * in the order of the list passed to rebuild, and results are reported in that order,
+ * so callers see exactly what a linear scan over the same list would give them.
+ */
+public final class SpatialGrid {
+    private double cellSize = 1.0;
+    private Vertex[] slots = new Vertex[0];
+    private int size;
+    private int[] cellX = new int[0], cellY = new int[0], cellZ = new int[0];
+    private int[] next = new int[0]; // Next slot in the same bucket, or -1
+    private int[] head = new int[0]; // First slot of each bucket, or -1
+    private int mask;
+    private int minCx, maxCx, minCy, maxCy, minCz, maxCz; // Occupied cell envelope
+
+    public void rebuild(List<Vertex> players, double cellSize) {
+        this.cellSize = cellSize > 0 ? cellSize : 1.0;
+        size = players.size();
+        if (slots.length < size) {
+            slots = new Vertex[size];
+            cellX = new int[size];
+            cellY = new int[size];
+            cellZ = new int[size];
+            next = new int[size];
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, size * 2 - 1)) << 1;
+        if (head.length != buckets) {
+            head = new int[buckets];
+        }
+        mask = buckets - 1;
+        Arrays.fill(head, -1);
+        minCx = minCy = minCz = Integer.MAX_VALUE;
+        maxCx = maxCy = maxCz = Integer.MIN_VALUE;
+
+        for (int slot = 0; slot < size; slot++) {
+            Vertex player = players.get(slot);
+            slots[slot] = player;
+            link(slot, cell(player.x), cell(player.y), cell(player.z));
+        }
+    }
+
+    // Relinks a player after its position changed; slot is its index in the rebuild list
+    void update(Vertex player, int slot) {
+        if (slot >= size || slots[slot] != player) {
+            return; // Player belongs to an older layout of this grid
+        }
+        int cx = cell(player.x), cy = cell(player.y), cz = cell(player.z);
+        if (cx == cellX[slot] && cy == cellY[slot] && cz == cellZ[slot]) {
+            return;
+        }
+        unlink(slot);
+        link(slot, cx, cy, cz);
+    }
+
+    /**
+     * Counts players not on excludedTeam within radius of (x, y, z).
+     * With inclusive set the boundary counts (distance <= radius), otherwise it does not.
+     */
+    public int countWithin(double x, double y, double z, double radius, boolean inclusive, char excludedTeam) {
+        int count = 0;
+        if (scanIsCheaper(x, y, z, radius)) {
+            for (int slot = 0; slot < size; slot++) {
+                if (matches(slots[slot], x, y, z, radius, inclusive, excludedTeam)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        int k = reach(radius);
+        int cx = cell(x), cy = cell(y), cz = cell(z);
+        for (int i = Math.max(cx - k, minCx); i <= Math.min(cx + k, maxCx); i++) {
+            for (int j = Math.max(cy - k, minCy); j <= Math.min(cy + k, maxCy); j++) {
+                for (int l = Math.max(cz - k, minCz); l <= Math.min(cz + k, maxCz); l++) {
+                    for (int slot = head[hash(i, j, l)]; slot >= 0; slot = next[slot]) {
+                        if (cellX[slot] == i && cellY[slot] == j && cellZ[slot] == l
+                                && matches(slots[slot], x, y, z, radius, inclusive, excludedTeam)) {
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends to out, in player order, every player not on excludedTeam within radius of (x, y, z).
+     */
+    public void collectWithin(double x, double y, double z, double radius, boolean inclusive,
+                              char excludedTeam, List<Vertex> out) {
+        int start = out.size();
+        if (scanIsCheaper(x, y, z, radius)) {
+            for (int slot = 0; slot < size; slot++) {
+                if (matches(slots[slot], x, y, z, radius, inclusive, excludedTeam)) {
+                    out.add(slots[slot]);
+                }
+            }
+            return;
+        }
+        int k = reach(radius);
+        int cx = cell(x), cy = cell(y), cz = cell(z);
+        for (int i = Math.max(cx - k, minCx); i <= Math.min(cx + k, maxCx); i++) {
+            for (int j = Math.max(cy - k, minCy); j <= Math.min(cy + k, maxCy); j++) {
+                for (int l = Math.max(cz - k, minCz); l <= Math.min(cz + k, maxCz); l++) {
+                    for (int slot = head[hash(i, j, l)]; slot >= 0; slot = next[slot]) {
+                        if (cellX[slot] == i && cellY[slot] == j && cellZ[slot] == l
+                                && matches(slots[slot], x, y, z, radius, inclusive, excludedTeam)) {
+                            insertInSlotOrder(out, start, slots[slot]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the player not on excludedTeam closest to (x, y, z), the earliest in player
+     * order on ties, or null if there is none. Searches outwards one shell of cells at a
+     * time and stops once no unvisited cell can hold anything closer.
+     */
+    public Vertex nearest(double x, double y, double z, char excludedTeam) {
+        if (size == 0) {
+            return null;
+        }
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        int cx = cell(x), cy = cell(y), cz = cell(z);
+        int maxReach = Math.max(Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy)),
+                Math.max(cz - minCz, maxCz - cz));
+        int visited = 0;
+        for (int k = 0; k <= maxReach; k++) {
+            if (best >= 0 && bestDistance < (k - 1) * cellSize) {
+                break; // Every point in shell k is at least (k - 1) cells away
+            }
+            int outer = 2 * k + 1, inner = Math.max(0, 2 * k - 1);
+            visited += outer * outer * outer - inner * inner * inner;
+            if (visited > size) {
+                return nearestByScan(x, y, z, excludedTeam);
+            }
+            for (int i = cx - k; i <= cx + k; i++) {
+                for (int j = cy - k; j <= cy + k; j++) {
+                    for (int l = cz - k; l <= cz + k; l++) {
+                        if (Math.abs(i - cx) != k && Math.abs(j - cy) != k && Math.abs(l - cz) != k) {
+                            continue; // Inner shells were visited already
+                        }
+                        for (int slot = head[hash(i, j, l)]; slot >= 0; slot = next[slot]) {
+                            if (cellX[slot] != i || cellY[slot] != j || cellZ[slot] != l
+                                    || slots[slot].team == excludedTeam) {
+                                continue;
+                            }
+                            double distance = distance(slots[slot], x, y, z);
+                            if (distance < bestDistance || (distance == bestDistance && slot < best)) {
+                                bestDistance = distance;
+                                best = slot;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best >= 0 ? slots[best] : null;
+    }
+
+    private Vertex nearestByScan(double x, double y, double z, char excludedTeam) {
+        Vertex best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (int slot = 0; slot < size; slot++) {
+            if (slots[slot].team == excludedTeam) {
+                continue;
+            }
+            double distance = distance(slots[slot], x, y, z);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = slots[slot];
+            }
+        }
+        return best;
+    }
+
+    private boolean scanIsCheaper(double x, double y, double z, double radius) {
+        int k = reach(radius);
+        int cx = cell(x), cy = cell(y), cz = cell(z);
+        long spanX = Math.min(cx + k, maxCx) - Math.max(cx - k, minCx) + 1L;
+        long spanY = Math.min(cy + k, maxCy) - Math.max(cy - k, minCy) + 1L;
+        long spanZ = Math.min(cz + k, maxCz) - Math.max(cz - k, minCz) + 1L;
+        if (spanX <= 0 || spanY <= 0 || spanZ <= 0) {
+            return false; // Nothing occupied in range; the cell loop is empty
+        }
+        return spanX * spanY * spanZ > size;
+    }
+
+    private static boolean matches(Vertex player, double x, double y, double z, double radius,
+                                   boolean inclusive, char excludedTeam) {
+        if (player.team == excludedTeam) {
+            return false;
+        }
+        double distance = distance(player, x, y, z);
+        return inclusive ? distance <= radius : distance < radius;
+    }
+
+    private static double distance(Vertex player, double x, double y, double z) {
+        double dx = player.x - x;
+        double dy = player.y - y;
+        double dz = player.z - z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private void insertInSlotOrder(List<Vertex> out, int start, Vertex player) {
+        int position = out.size();
+        while (position > start && slotOf(out.get(position - 1)) > slotOf(player)) {
+            position--;
+        }
+        out.add(position, player);
+    }
+
+    private static int slotOf(Vertex player) {
+        return player.slot;
+    }
+
+    private int reach(double radius) {
+        return (int) Math.min(Integer.MAX_VALUE / 4, Math.ceil(radius / cellSize));
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int hash(int cx, int cy, int cz) {
+        return ((cx * 73856093) ^ (cy * 19349663) ^ (cz * 83492791)) & mask;
+    }
+
+    private void link(int slot, int cx, int cy, int cz) {
+        cellX[slot] = cx;
+        cellY[slot] = cy;
+        cellZ[slot] = cz;
+        int bucket = hash(cx, cy, cz);
+        next[slot] = head[bucket];
+        head[bucket] = slot;
+        minCx = Math.min(minCx, cx); maxCx = Math.max(maxCx, cx);
+        minCy = Math.min(minCy, cy); maxCy = Math.max(maxCy, cy);
+        minCz = Math.min(minCz, cz); maxCz = Math.max(maxCz, cz);
+    }
+
+    private void unlink(int slot) {
+        int bucket = hash(cellX[slot], cellY[slot], cellZ[slot]);
+        if (head[bucket] == slot) {
+            head[bucket] = next[slot];
+            return;
+        }
+        for (int s = head[bucket]; s >= 0; s = next[s]) {
+            if (next[s] == slot) {
+                next[s] = next[slot];
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * Running count, sum, sum of squares, minimum and maximum of the four per-strategy
+ * metrics, stored in flat arrays indexed by a dense key id (one per strategy and team
+ * slot, assigned by SweepResults). Recording is a handful of array writes with no
+ * boxing or allocation once the id has been seen.
+ *
+ * It is not thread-safe: like SweepResults, each sweep task fills its own aggregator
+ * and the engine merges them when tasks join, so threads never share one.
+ */
+public final class StrategyAggregator {
+    public static final int WIN_RATE = 0;
+    public static final int MOVING_DISTANCE = 1;
+    public static final int SUCCESSFUL_PASSES = 2;
+    public static final int FAILED_PASSES = 3;
+    public static final int METRICS = 4;
+
+    private int capacity;
+    private long[] count = new long[0];
+    private double[] sum = new double[0]; // [id * METRICS + metric]
+    private double[] sumOfSquares = new double[0];
+    private double[] min = new double[0];
+    private double[] max = new double[0];
+
+    public void record(int id, double winRate, double movingDistance, double successfulPasses, double failedPasses) {
+        ensureCapacity(id + 1);
+        count[id]++;
+        int base = id * METRICS;
+        add(base + WIN_RATE, winRate);
+        add(base + MOVING_DISTANCE, movingDistance);
+        add(base + SUCCESSFUL_PASSES, successfulPasses);
+        add(base + FAILED_PASSES, failedPasses);
+    }
+
+    // Folds the other aggregator's statistics for otherId into this one's id
+    public void merge(int id, StrategyAggregator other, int otherId) {
+        if (otherId >= other.capacity || other.count[otherId] == 0) {
+            return;
+        }
+        ensureCapacity(id + 1);
+        count[id] += other.count[otherId];
+        for (int metric = 0; metric < METRICS; metric++) {
+            int to = id * METRICS + metric, from = otherId * METRICS + metric;
+            sum[to] += other.sum[from];
+            sumOfSquares[to] += other.sumOfSquares[from];
+            min[to] = Math.min(min[to], other.min[from]);
+            max[to] = Math.max(max[to], other.max[from]);
+        }
+    }
+
+    // Sets the statistics of an id outright, as read back from a checkpoint or a worker
+    public void set(int id, long count, double[] sum, double[] sumOfSquares, double[] min, double[] max) {
+        ensureCapacity(id + 1);
+        if (count == 0) {
+            return; // Nothing recorded: keep the empty minimum and maximum
+        }
+        this.count[id] = count;
+        System.arraycopy(sum, 0, this.sum, id * METRICS, METRICS);
+        System.arraycopy(sumOfSquares, 0, this.sumOfSquares, id * METRICS, METRICS);
+        System.arraycopy(min, 0, this.min, id * METRICS, METRICS);
+        System.arraycopy(max, 0, this.max, id * METRICS, METRICS);
+    }
+
+    public long count(int id) {
+        return id < capacity ? count[id] : 0;
+    }
+
+    public double sum(int id, int metric) {
+        return id < capacity ? sum[id * METRICS + metric] : 0;
+    }
+
+    public double sumOfSquares(int id, int metric) {
+        return id < capacity ? sumOfSquares[id * METRICS + metric] : 0;
+    }
+
+    public double min(int id, int metric) {
+        return count(id) > 0 ? min[id * METRICS + metric] : Double.NaN;
+    }
+
+    public double max(int id, int metric) {
+        return count(id) > 0 ? max[id * METRICS + metric] : Double.NaN;
+    }
+
+    public double mean(int id, int metric) {
+        long n = count(id);
+        return n > 0 ? sum(id, metric) / n : Double.NaN;
+    }
+
+    // Sample variance of the recorded values; zero until there are two of them
+    public double variance(int id, int metric) {
+        long n = count(id);
+        if (n < 2) {
+            return 0;
+        }
+        double mean = sum(id, metric) / n;
+        return Math.max(0, (sumOfSquares(id, metric) - n * mean * mean) / (n - 1));
+    }
+
+    private void add(int index, double value) {
+        sum[index] += value;
+        sumOfSquares[index] += value * value;
+        if (value < min[index]) {
+            min[index] = value;
+        }
+        if (value > max[index]) {
+            max[index] = value;
+        }
+    }
+
+    private void ensureCapacity(int ids) {
+        if (ids <= capacity) {
+            return;
+        }
+        int grown = Math.max(ids, Math.max(8, capacity * 2));
+        count = Arrays.copyOf(count, grown);
+        sum = Arrays.copyOf(sum, grown * METRICS);
+        sumOfSquares = Arrays.copyOf(sumOfSquares, grown * METRICS);
+        min = Arrays.copyOf(min, grown * METRICS);
+        max = Arrays.copyOf(max, grown * METRICS);
+        Arrays.fill(min, capacity * METRICS, grown * METRICS, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, capacity * METRICS, grown * METRICS, Double.NEGATIVE_INFINITY);
+        capacity = grown;
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.List;
+
+/**
+ * One configuration of the parameter sweep: a field bound, an adjacent radius,
+ * the team sizes, a starting scenario and the strategy assigned to each team.
+ * Every formation of the team sizes is played for each cell.
+ */
+public final class SweepCell {
+    public final long index;
+    public final long seed; // Seed of the cell's random stream; trials draw their seeds from it
+    public final int bound;
+    public final double adjacentRadius;
+    public final List<Integer> teamSizes;
+    public final SoccerSimulation.StartingScenario scenario;
+    public final List<SoccerStrategy> strategies;
+
+    public SweepCell(long index, long seed, int bound, double adjacentRadius, List<Integer> teamSizes,
+                     SoccerSimulation.StartingScenario scenario, List<SoccerStrategy> strategies) {
+        this.index = index;
+        this.seed = seed;
+        this.bound = bound;
+        this.adjacentRadius = adjacentRadius;
+        this.teamSizes = teamSizes;
+        this.scenario = scenario;
+        this.strategies = strategies;
+    }
+
+    public int numGoals() {
+        return teamSizes.size(); // One goal per team, as in the original sweep
+    }
+
+    @Override
+    public String toString() {
+        return "SweepCell{" +
+                "index=" + index +
+                ", seed=" + seed +
+                ", bound=" + bound +
+                ", adjacentRadius=" + adjacentRadius +
+                ", teamSizes=" + teamSizes +
+                ", scenario=" + scenario +
+                "}";
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Progress of a sweep that survives restarts: the completed cells of the grid, kept as
+ * coalesced index ranges, and the aggregates of those cells. Sweep leaves report into
+ * it as they finish, and it is written out at most once per interval to a temporary
+ * file that is then renamed over the checkpoint, so a crash leaves either the previous
+ * checkpoint or the new one, never a torn file.
+ *
+ * With a TrialStore attached, each save also records how many rows the store held, all
+ * of them forced to disk. Resuming cuts the store back to those rows and drops any of
+ * cells the checkpoint does not count as done, so replayed cells are not stored twice.
+ *
+ * File layout (big-endian): magic, version, sweep description (grid and trial policy),
+ * range count, ranges as (from, to) pairs, the store's row count or -1 without a store,
+ * the aggregates in the form SweepResults.write gives them, and a CRC32 of everything
+ * before it.
+ */
+public final class SweepCheckpoint {
+    private static final int MAGIC = 0x5357434B; // "SWCK"
+    private static final int VERSION = 6;
+
+    private final Path path;
+    private final String gridDescription;
+    private final long intervalNanos;
+    private final TreeMap<Long, Long> completed = new TreeMap<>(); // Range start -> exclusive end
+    private final SweepResults results = new SweepResults();
+    private TrialStore store;
+    private long storeRows = -1; // Rows the store held at the last save, -1 if none was attached
+    private long lastSave = System.nanoTime();
+
+    private SweepCheckpoint(Path path, SweepGrid grid, TrialPolicy policy, long intervalNanos) {
+        this.path = path;
+        this.gridDescription = grid.describe(policy);
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Opens the checkpoint at path for the grid, resuming from it if the file exists.
+     * A file written for a different grid, seed or trial policy is rejected rather than mixed in.
+     */
+    public static SweepCheckpoint open(Path path, SweepGrid grid, TrialPolicy policy,
+                                       long intervalSeconds) throws IOException {
+        SweepCheckpoint checkpoint = new SweepCheckpoint(path, grid, policy, intervalSeconds * 1_000_000_000L);
+        if (Files.exists(path)) {
+            checkpoint.read();
+        }
+        return checkpoint;
+    }
+
+    public synchronized long completedCells() {
+        long cells = 0;
+        for (Map.Entry<Long, Long> range : completed.entrySet()) {
+            cells += range.getValue() - range.getKey();
+        }
+        return cells;
+    }
+
+    public synchronized boolean isCompleted(long index) {
+        Map.Entry<Long, Long> range = completed.floorEntry(index);
+        return range != null && range.getValue() > index;
+    }
+
+    /**
+     * Records the trials of the completed cells in the store from now on. A store with
+     * rows the checkpoint did not record, or a resumed checkpoint whose cells were never
+     * stored, is rejected rather than appended to twice.
+     */
+    public synchronized void attach(TrialStore store) throws IOException {
+        if (storeRows >= 0) {
+            store.rewind(storeRows, this::isCompleted);
+        } else if (store.rows() > 0) {
+            throw new IllegalStateException("Trial store already holds " + store.rows()
+                    + " rows its checkpoint " + path + " does not account for");
+        } else if (!completed.isEmpty()) {
+            throw new IllegalStateException("Checkpoint " + path + " has " + completedCells()
+                    + " completed cells whose trials were not stored");
+        }
+        this.store = store;
+    }
+
+    // The sub-ranges of [from, to) that still have to be run, in index order
+    public synchronized List<long[]> pending(long from, long to) {
+        List<long[]> gaps = new ArrayList<>();
+        long next = from;
+        Map.Entry<Long, Long> before = completed.floorEntry(from);
+        if (before != null && before.getValue() > next) {
+            next = before.getValue();
+        }
+        for (Map.Entry<Long, Long> range : completed.subMap(from, true, to, false).entrySet()) {
+            if (range.getKey() > next) {
+                gaps.add(new long[] {next, range.getKey()});
+            }
+            next = Math.max(next, range.getValue());
+        }
+        if (next < to) {
+            gaps.add(new long[] {next, to});
+        }
+        return gaps;
+    }
+
+    // Records the cells [from, to) as done with their aggregates, saving if the interval has passed
+    public synchronized void complete(long from, long to, SweepResults cellResults) {
+        results.merge(cellResults);
+        long start = from, end = to;
+        Map.Entry<Long, Long> before = completed.floorEntry(from);
+        if (before != null && before.getValue() >= from) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+            completed.remove(before.getKey());
+        }
+        Map.Entry<Long, Long> after;
+        while ((after = completed.ceilingEntry(start)) != null && after.getKey() <= end) {
+            end = Math.max(end, after.getValue());
+            completed.remove(after.getKey());
+        }
+        completed.put(start, end);
+
+        if (System.nanoTime() - lastSave >= intervalNanos) {
+            try {
+                save();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write checkpoint " + path, e);
+            }
+        }
+    }
+
+    // Aggregates of every completed cell, including those restored from the file
+    public synchronized SweepResults results() {
+        return new SweepResults().merge(results);
+    }
+
+    public synchronized void save() throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            if (store != null) {
+                store.flushBatches(); // Rows of every completed cell, wherever they were batched
+                storeRows = store.rows(); // Counted before forcing, so every counted row is on disk
+                store.force();
+            } else {
+                storeRows = -1;
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(gridDescription);
+            out.writeInt(completed.size());
+            for (Map.Entry<Long, Long> range : completed.entrySet()) {
+                out.writeLong(range.getKey());
+                out.writeLong(range.getValue());
+            }
+            out.writeLong(storeRows);
+            results.write(out);
+            out.flush();
+            file.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        lastSave = System.nanoTime();
+    }
+
+    private void read() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < Long.BYTES) {
+            throw new IOException("Checkpoint " + path + " is truncated");
+        }
+        int body = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, body);
+        if (crc.getValue() != ByteBuffer.wrap(bytes, body, Long.BYTES).getLong()) {
+            throw new IOException("Checkpoint " + path + " is corrupt");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, body))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(path + " is not a sweep checkpoint");
+            }
+            String description = in.readUTF();
+            if (!description.equals(gridDescription)) {
+                throw new IllegalStateException("Checkpoint " + path + " belongs to another sweep: " + description);
+            }
+            int ranges = in.readInt();
+            for (int i = 0; i < ranges; i++) {
+                completed.put(in.readLong(), in.readLong());
+            }
+            storeRows = in.readLong();
+            results.merge(SweepResults.read(in));
+        }
+    }
+}
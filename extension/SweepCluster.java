@@ -0,0 +1,284 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator side of a cluster sweep. It starts one worker process per command, splits
+ * the grid into shards of contiguous cells and hands each worker the next shard as soon
+ * as it reports the previous one. Workers talk to it over their stdin and stdout (see
+ * SweepWorker), so a command can start the worker locally or on another host, e.g.
+ * behind ssh, as long as that host sees the same classes.
+ *
+ * When a worker dies or its stream breaks, its shard goes back on the queue and a fresh
+ * worker is started in its place. A worker that has not answered within the shard
+ * timeout is taken to be hung: it is killed and its shard handled the same way. A shard
+ * that has failed MAX_ATTEMPTS times aborts the sweep, since it would most likely keep
+ * killing workers.
+ */
+public final class SweepCluster {
+    static final int MAX_ATTEMPTS = 3;
+    private static final long MAX_SHARD_CELLS = 256;
+    private static final int SHARDS_PER_WORKER = 16;
+    static final long DEFAULT_SHARD_TIMEOUT_SECONDS = 3600;
+
+    private final SweepGrid grid;
+    private final String description;
+    private final List<List<String>> workerCommands;
+    private long shardTimeoutSeconds = DEFAULT_SHARD_TIMEOUT_SECONDS;
+
+    public SweepCluster(SweepGrid grid, TrialPolicy policy, List<List<String>> workerCommands) {
+        if (workerCommands.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one worker");
+        }
+        this.grid = grid;
+        this.description = grid.describe(policy);
+        this.workerCommands = List.copyOf(workerCommands);
+    }
+
+    // How long a worker may take over one shard before it is killed and the shard re-queued
+    public void setShardTimeout(long seconds) {
+        if (seconds < 1) {
+            throw new IllegalArgumentException("Shard timeout must be at least a second, not " + seconds);
+        }
+        this.shardTimeoutSeconds = seconds;
+    }
+
+    public SweepResults run() {
+        SweepResults results = new SweepResults();
+        run(List.of(new long[] {0, grid.size()}), (from, to, shardResults) -> {
+            synchronized (results) {
+                results.merge(shardResults);
+            }
+        });
+        return results;
+    }
+
+    // Runs the cells the checkpoint has not completed, reporting every shard to it
+    public SweepResults run(SweepCheckpoint checkpoint) throws IOException {
+        run(checkpoint.pending(0, grid.size()), checkpoint::complete);
+        checkpoint.save();
+        return checkpoint.results();
+    }
+
+    private interface ShardSink {
+        void accept(long from, long to, SweepResults results);
+    }
+
+    private void run(List<long[]> ranges, ShardSink sink) {
+        long cells = 0;
+        for (long[] range : ranges) {
+            cells += range[1] - range[0];
+        }
+        // Small enough that every worker gets several shards and a crash loses little work
+        long shardCells = cells / ((long) workerCommands.size() * SHARDS_PER_WORKER);
+        shardCells = Math.max(1, Math.min(MAX_SHARD_CELLS, shardCells));
+        ShardQueue queue = new ShardQueue(ranges, shardCells);
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sweep-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        for (List<String> command : workerCommands) {
+            Thread thread = new Thread(() -> drive(command, queue, sink, watchdog), "sweep-worker-" + threads.size());
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.fail(new IllegalStateException("Interrupted while waiting for workers", e));
+            }
+        }
+        watchdog.shutdownNow();
+        if (queue.failure != null) {
+            throw queue.failure;
+        }
+    }
+
+    // Feeds shards to one worker slot, restarting its process whenever it fails or hangs
+    private void drive(List<String> command, ShardQueue queue, ShardSink sink, ScheduledExecutorService watchdog) {
+        Worker worker = null;
+        long[] shard;
+        while ((shard = queue.next()) != null) {
+            try {
+                if (worker == null) {
+                    worker = new Worker(command, description);
+                }
+                // Killing a hung worker closes its output, so the read below fails and the shard is re-queued
+                ScheduledFuture<?> deadline = watchdog.schedule(worker::expire, shardTimeoutSeconds, TimeUnit.SECONDS);
+                SweepResults results;
+                try {
+                    results = worker.run(shard[0], shard[1]);
+                } finally {
+                    deadline.cancel(false);
+                }
+                sink.accept(shard[0], shard[1], results);
+                queue.done();
+            } catch (IOException e) {
+                if (worker != null && worker.expired) {
+                    e = new IOException("No answer within " + shardTimeoutSeconds + " s", e);
+                }
+                System.err.println("Worker " + command + " failed on cells " + shard[0] + ".." + shard[1]
+                        + ", re-queueing: " + e);
+                if (worker != null) {
+                    worker.destroy();
+                    worker = null;
+                }
+                queue.retry(shard, e);
+            } catch (RuntimeException e) {
+                queue.fail(e);
+            }
+        }
+        if (worker != null) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Shards still to run: retried shards first, then fresh ones cut from the ranges in
+     * index order. Workers wait while shards are out, since a failing one may come back.
+     */
+    private static final class ShardQueue {
+        private final List<long[]> ranges;
+        private final long shardCells;
+        private final ArrayDeque<long[]> retries = new ArrayDeque<>();
+        private final Map<Long, Integer> attempts = new HashMap<>(); // Failures per shard start
+        private int range;
+        private long cursor;
+        private int outstanding;
+        volatile RuntimeException failure;
+
+        ShardQueue(List<long[]> ranges, long shardCells) {
+            this.ranges = ranges;
+            this.shardCells = shardCells;
+            this.cursor = ranges.isEmpty() ? 0 : ranges.get(0)[0];
+        }
+
+        synchronized long[] next() {
+            while (true) {
+                if (failure != null) {
+                    return null;
+                }
+                long[] shard = retries.poll();
+                if (shard == null) {
+                    while (range < ranges.size() && cursor >= ranges.get(range)[1]) {
+                        range++;
+                        cursor = range < ranges.size() ? ranges.get(range)[0] : 0;
+                    }
+                    if (range < ranges.size()) {
+                        long end = Math.min(cursor + shardCells, ranges.get(range)[1]);
+                        shard = new long[] {cursor, end};
+                        cursor = end;
+                    }
+                }
+                if (shard != null) {
+                    outstanding++;
+                    return shard;
+                }
+                if (outstanding == 0) {
+                    return null;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(new IllegalStateException("Interrupted while waiting for shards", e));
+                }
+            }
+        }
+
+        synchronized void done() {
+            outstanding--;
+            notifyAll();
+        }
+
+        synchronized void retry(long[] shard, IOException cause) {
+            outstanding--;
+            int failures = attempts.merge(shard[0], 1, Integer::sum);
+            if (failures >= MAX_ATTEMPTS) {
+                fail(new IllegalStateException("Cells " + shard[0] + ".." + shard[1] + " failed on "
+                        + failures + " workers", cause));
+            } else {
+                retries.add(shard);
+            }
+            notifyAll();
+        }
+
+        synchronized void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            notifyAll();
+        }
+    }
+
+    // One worker process and its protocol streams
+    private static final class Worker {
+        private final Process process;
+        private final DataOutputStream toWorker;
+        private final DataInputStream fromWorker;
+        volatile boolean expired; // Killed for taking longer than the shard timeout
+
+        Worker(List<String> command, String description) throws IOException {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            if (fromWorker.readInt() != SweepWorker.MAGIC) {
+                destroy();
+                throw new IOException("Not a sweep worker: " + command);
+            }
+            String workerDescription = fromWorker.readUTF();
+            if (!workerDescription.equals(description)) {
+                destroy();
+                throw new IllegalStateException("Worker " + command + " runs another sweep: " + workerDescription);
+            }
+        }
+
+        SweepResults run(long from, long to) throws IOException {
+            toWorker.writeLong(from);
+            toWorker.writeLong(to);
+            toWorker.flush();
+            if (fromWorker.readLong() != from || fromWorker.readLong() != to) {
+                throw new IOException("Worker answered for the wrong cells");
+            }
+            return SweepResults.read(fromWorker);
+        }
+
+        void close() {
+            try {
+                toWorker.writeLong(-1);
+                toWorker.close();
+                process.waitFor();
+            } catch (IOException e) {
+                destroy();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                destroy();
+            }
+        }
+
+        void expire() {
+            expired = true;
+            destroy();
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a SweepGrid on a fork/join pool. Index ranges are split in half until they fit
+ * in a window of WINDOW_CELLS cells, whose cells are then played largest first as
+ * estimated by a CellCostModel that learns from every finished cell. Each cell plays on
+ * fresh SoccerSimulation instances; results are merged on the way back up in index
+ * order, so the aggregates are the same for any number of threads.
+ */
+public class SweepEngine {
+    private static final long WINDOW_CELLS = 256;
+    private static final int COST_SAMPLES = 8;
+
+    private final ForkJoinPool pool;
+    private final TrialPolicy policy;
+    private final CancellationToken cancellation = new CancellationToken();
+    private final CellCostModel costModel;
+    private TrialExecutor executor; // Plays each trial on a virtual thread, if set
+    private TrialStore store;
+    private ThreadLocal<TrialStore.Batch> batches; // One reusable batch per pool thread
+    private final ThreadLocal<CellCostModel.Accumulator> costs; // Each pool thread's finished cells
+
+    public SweepEngine(int parallelism, TrialPolicy policy) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.policy = policy;
+        this.costModel = new CellCostModel(policy, SoccerSimulationRunner.MAX_ITERATIONS);
+        this.costs = ThreadLocal.withInitial(costModel::newAccumulator);
+    }
+
+    public SweepEngine(int parallelism) {
+        this(parallelism, SoccerSimulationRunner.defaultTrialPolicy());
+    }
+
+    public SweepEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public TrialPolicy getTrialPolicy() {
+        return policy;
+    }
+
+    public CellCostModel getCostModel() {
+        return costModel;
+    }
+
+    // Plays the trials of later runs on the executor's virtual threads; pool threads then only aggregate
+    public void setTrialExecutor(TrialExecutor executor) {
+        this.executor = executor;
+    }
+
+    // Records every trial of later runs in the store. Each pool thread batches trials across
+    // cells; the batches are flushed when full, before a checkpoint save and when a run ends
+    public void setTrialStore(TrialStore store) {
+        this.store = store;
+        this.batches = store != null ? ThreadLocal.withInitial(store::newBatch) : null;
+    }
+
+    public SweepResults run(SweepGrid grid) {
+        return run(grid, 0, grid.size());
+    }
+
+    public SweepResults run(SweepGrid grid, long from, long to) {
+        SweepResults results = pool.invoke(new SweepTask(grid, from, to, null));
+        flushTrialStore();
+        return results;
+    }
+
+    /**
+     * Runs only the cells the checkpoint has not completed, reporting each window to it as
+     * it finishes, and returns the aggregates of the whole grid, restored ones included.
+     */
+    public SweepResults run(SweepGrid grid, SweepCheckpoint checkpoint) throws IOException {
+        for (long[] gap : checkpoint.pending(0, grid.size())) {
+            pool.invoke(new SweepTask(grid, gap[0], gap[1], checkpoint));
+        }
+        flushTrialStore();
+        checkpoint.save();
+        return checkpoint.results();
+    }
+
+    private void flushTrialStore() {
+        if (store != null) {
+            try {
+                store.flushBatches();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write trial store", e);
+            }
+        }
+    }
+
+    // Stops every running simulation at its next iteration; run() then throws CancellationException
+    public void cancel() {
+        cancellation.cancel();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Splits an index range in half until it fits in a window, running the half the cost
+     * model expects to be more expensive itself and leaving the other to be stolen. The
+     * halves are always merged in the same order, whichever ran first.
+     */
+    private class SweepTask extends RecursiveTask<SweepResults> {
+        private static final long serialVersionUID = 1L; // Tasks are never serialized; their fields are transient
+
+        private final transient SweepGrid grid;
+        private final long from;
+        private final long to;
+        private final transient SweepCheckpoint checkpoint; // Receives window results instead of the parent, if set
+
+        SweepTask(SweepGrid grid, long from, long to, SweepCheckpoint checkpoint) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        protected SweepResults compute() {
+            if (to - from <= WINDOW_CELLS) {
+                SweepResults results = runWindow();
+                costModel.mergeAccumulators(); // Later windows are ordered by what this one measured
+                if (checkpoint != null) {
+                    checkpoint.complete(from, to, results);
+                    return new SweepResults();
+                }
+                return results;
+            }
+            long mid = from + (to - from) / 2;
+            SweepTask left = new SweepTask(grid, from, mid, checkpoint);
+            SweepTask right = new SweepTask(grid, mid, to, checkpoint);
+            SweepResults leftResults, rightResults;
+            if (sampledCost(from, mid) >= sampledCost(mid, to)) {
+                right.fork();
+                leftResults = left.compute();
+                rightResults = right.join();
+            } else {
+                left.fork();
+                rightResults = right.compute();
+                leftResults = left.join();
+            }
+            return rightResults.merge(leftResults);
+        }
+
+        // Estimated cost of a range, from a few cells spread evenly across it
+        private double sampledCost(long start, long end) {
+            long step = Math.max(1, (end - start) / COST_SAMPLES);
+            double cost = 0;
+            int samples = 0;
+            for (long index = start; index < end && samples < COST_SAMPLES; index += step, samples++) {
+                SweepCell cell = grid.cell(index);
+                cost += costModel.estimate(cell);
+            }
+            return cost / samples * (end - start);
+        }
+
+        /**
+         * Plays the window's cells largest first: they are sorted by estimated cost and
+         * split into halves of equal cost, so idle threads steal the biggest pending work
+         * and the window does not end waiting on one expensive cell started last. Each
+         * cell fills its own results, merged in index order so the totals do not depend
+         * on which thread ran what.
+         */
+        private SweepResults runWindow() {
+            int count = (int) (to - from);
+            SweepCell[] cells = new SweepCell[count];
+            Integer[] order = new Integer[count];
+            double[] costs = new double[count];
+            for (int i = 0; i < count; i++) {
+                String progress = grid.progress(from + i);
+                if (progress != null) {
+                    System.out.println(progress);
+                }
+                cells[i] = grid.cell(from + i);
+                costs[i] = costModel.estimate(cells[i]);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(costs[b], costs[a]));
+            double[] prefix = new double[count + 1];
+            for (int i = 0; i < count; i++) {
+                prefix[i + 1] = prefix[i] + costs[order[i]];
+            }
+            SweepResults[] cellResults = new SweepResults[count];
+            if (count > 0) {
+                new CellTask(grid, cells, order, prefix, 0, count, cellResults).invoke();
+            }
+            SweepResults results = new SweepResults();
+            for (SweepResults cellResult : cellResults) {
+                results.merge(cellResult);
+            }
+            return results;
+        }
+    }
+
+    // Runs cells order[lo..hi) of a window, whose costs are sorted largest first
+    private class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SweepGrid grid;
+        private final transient SweepCell[] cells;
+        private final Integer[] order;
+        private final double[] prefix; // Cost of order[0..i)
+        private final int lo;
+        private final int hi;
+        private final transient SweepResults[] cellResults;
+
+        CellTask(SweepGrid grid, SweepCell[] cells, Integer[] order, double[] prefix, int lo, int hi,
+                 SweepResults[] cellResults) {
+            this.grid = grid;
+            this.cells = cells;
+            this.order = order;
+            this.prefix = prefix;
+            this.lo = lo;
+            this.hi = hi;
+            this.cellResults = cellResults;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                runCell(cells[order[lo]], order[lo]);
+                return;
+            }
+            // Split where half the cost is reached, keeping at least one cell on each side
+            double half = (prefix[lo] + prefix[hi]) / 2;
+            int mid = Arrays.binarySearch(prefix, lo + 1, hi, half);
+            mid = Math.max(lo + 1, Math.min(hi - 1, mid >= 0 ? mid : -mid - 1));
+            CellTask smaller = new CellTask(grid, cells, order, prefix, mid, hi, cellResults);
+            smaller.fork();
+            new CellTask(grid, cells, order, prefix, lo, mid, cellResults).compute();
+            smaller.join();
+        }
+
+        private void runCell(SweepCell cell, int slot) {
+            SweepResults results = new SweepResults();
+            TrialStore.Batch batch = store != null ? batches.get() : null;
+            long start = System.nanoTime();
+            long ticks = SoccerSimulationRunner.runCell(cell, policy, cancellation, executor, batch, results);
+            costs.get().record(cell, (int) results.precision.trials(), ticks, System.nanoTime() - start);
+            cellResults[slot] = results;
+        }
+    }
+}
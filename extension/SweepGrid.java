@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The full parameter grid of the soccer sweep, addressed by a dense long index.
+ * Index order is bound, adjacent radius, number of teams, team sizes, scenario
+ * and strategy combination, so any range of indices can be handed to a worker
+ * without materialising the cells in between.
+ *
+ * A sampled grid replaces the dense (bound, radius, team sizes, scenario) lattice by a
+ * budget of points from a Sobol sequence over those axes; every strategy combination is
+ * still played at each point. Index order is then sample, then strategy combination.
+ */
+public final class SweepGrid {
+    public static final SoccerSimulation.StartingScenario[] SCENARIOS = {
+        SoccerSimulation.StartingScenario.GOAL_KICK,
+        SoccerSimulation.StartingScenario.CORNER_KICK,
+        SoccerSimulation.StartingScenario.KICK_OFF
+    };
+
+    public final int minBound;
+    public final int maxBound;
+    public final double minRadius;
+    public final double radiusStep;
+    public final int radiusCount;
+    public final int minTeams;
+    public final int maxTeams;
+    public final int minTeamSize;
+    public final int maxTeamSize;
+    public final List<SoccerStrategy> strategies;
+    public final long seed; // Root of every cell's random stream
+    public final int samples; // Sobol points drawn instead of the full lattice, or 0 for the full grid
+
+    private final long[] cellsPerTeamCount; // Cells of one (bound, radius) point, per number of teams
+    private final long cellsPerPoint;
+    private final long size;
+    private final SobolSequence sobol;
+    private final long[] sampleStart; // First cell index of each sample, and the size at the end
+
+    public SweepGrid(int minBound, int maxBound, double minRadius, double radiusStep, int radiusCount,
+                     int minTeams, int maxTeams, int minTeamSize, int maxTeamSize,
+                     List<SoccerStrategy> strategies, long seed) {
+        this(minBound, maxBound, minRadius, radiusStep, radiusCount, minTeams, maxTeams, minTeamSize, maxTeamSize,
+                strategies, seed, 0);
+    }
+
+    public SweepGrid(int minBound, int maxBound, double minRadius, double radiusStep, int radiusCount,
+                     int minTeams, int maxTeams, int minTeamSize, int maxTeamSize,
+                     List<SoccerStrategy> strategies, long seed, int samples) {
+        if (minBound > maxBound || radiusCount <= 0 || minTeams < 2 || minTeams > maxTeams
+                || minTeamSize > maxTeamSize || strategies.isEmpty() || samples < 0) {
+            throw new IllegalArgumentException("Empty or invalid sweep grid");
+        }
+        this.minBound = minBound;
+        this.maxBound = maxBound;
+        this.minRadius = minRadius;
+        this.radiusStep = radiusStep;
+        this.radiusCount = radiusCount;
+        this.minTeams = minTeams;
+        this.maxTeams = maxTeams;
+        this.minTeamSize = minTeamSize;
+        this.maxTeamSize = maxTeamSize;
+        this.strategies = List.copyOf(strategies);
+        this.seed = seed;
+        this.samples = samples;
+
+        cellsPerTeamCount = new long[maxTeams - minTeams + 1];
+        long perPoint = 0;
+        for (int numTeams = minTeams; numTeams <= maxTeams; numTeams++) {
+            long cells = Math.multiplyExact(teamSizeCombinations(numTeams), SCENARIOS.length);
+            cells = Math.multiplyExact(cells, strategyCombinations(numTeams));
+            cellsPerTeamCount[numTeams - minTeams] = cells;
+            perPoint = Math.addExact(perPoint, cells);
+        }
+        cellsPerPoint = perPoint;
+        if (samples == 0) {
+            sobol = null;
+            sampleStart = null;
+            size = Math.multiplyExact(Math.multiplyExact((long) (maxBound - minBound + 1), radiusCount), cellsPerPoint);
+            return;
+        }
+        // One Sobol dimension each for bound, radius, number of teams, scenario and every team size
+        sobol = new SobolSequence(4 + maxTeams, seed);
+        sampleStart = new long[samples + 1];
+        for (int s = 0; s < samples; s++) {
+            int numTeams = minTeams + level(s, 2, maxTeams - minTeams + 1);
+            sampleStart[s + 1] = Math.addExact(sampleStart[s], strategyCombinations(numTeams));
+        }
+        size = sampleStart[samples];
+    }
+
+    // The grid swept by SoccerSimulationRunner: bounds 1..1000, radii 1.0..10.0 in steps
+    // of 0.125, 2 to 6 teams of 2 to 11 players and every strategy on every team
+    public static SweepGrid defaultGrid(long seed) {
+        return new SweepGrid(1, 1000, 1.0, 0.125, 73, 2, 6, 2, 11, SoccerSimulationRunner.allStrategies(), seed);
+    }
+
+    // The default grid's axes, sampled at the given number of Sobol points
+    public static SweepGrid defaultSample(long seed, int samples) {
+        return new SweepGrid(1, 1000, 1.0, 0.125, 73, 2, 6, 2, 11, SoccerSimulationRunner.allStrategies(),
+                seed, samples);
+    }
+
+    // Identifies the grid and its seed, so saved progress is only resumed on the same sweep
+    public String describe() {
+        StringBuilder names = new StringBuilder();
+        for (SoccerStrategy strategy : strategies) {
+            names.append(names.length() == 0 ? "" : ",").append(strategy.name);
+        }
+        return "bounds=" + minBound + ".." + maxBound
+                + " radii=" + minRadius + "+" + radiusStep + "x" + radiusCount
+                + " teams=" + minTeams + ".." + maxTeams
+                + " sizes=" + minTeamSize + ".." + maxTeamSize
+                + " strategies=" + names
+                + " seed=" + seed
+                + (samples > 0 ? " samples=" + samples : "");
+    }
+
+    // Identifies a sweep of this grid under a trial policy
+    public String describe(TrialPolicy policy) {
+        return describe() + " trials=" + policy;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // Progress line to print before running the cell at index, or null
+    public String progress(long index) {
+        if (samples == 0) {
+            long cellsPerBound = cellsPerPoint * radiusCount;
+            int bound = minBound + (int) (index / cellsPerBound);
+            return index % cellsPerBound == 0 && bound % 10 == 0 ? "Running simulations for bound: " + bound : null;
+        }
+        int sample = sampleOf(index);
+        return index == sampleStart[sample] && sample % Math.max(1, samples / 10) == 0
+                ? "Running sample " + (sample + 1) + " of " + samples : null;
+    }
+
+    public long teamSizeCombinations(int numTeams) {
+        return power(maxTeamSize - minTeamSize + 1, numTeams);
+    }
+
+    public long strategyCombinations(int numTeams) {
+        return power(strategies.size(), numTeams);
+    }
+
+    public SweepCell cell(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Cell index " + index + " outside grid of size " + size);
+        }
+        if (samples > 0) {
+            return sampledCell(index);
+        }
+        long point = index / cellsPerPoint;
+        long offset = index % cellsPerPoint;
+        int bound = minBound + (int) (point / radiusCount);
+        double adjacentRadius = minRadius + (point % radiusCount) * radiusStep;
+
+        int numTeams = minTeams;
+        while (offset >= cellsPerTeamCount[numTeams - minTeams]) {
+            offset -= cellsPerTeamCount[numTeams - minTeams];
+            numTeams++;
+        }
+        long strategyCombinations = strategyCombinations(numTeams);
+        long strategyIndex = offset % strategyCombinations;
+        offset /= strategyCombinations;
+        SoccerSimulation.StartingScenario scenario = SCENARIOS[(int) (offset % SCENARIOS.length)];
+        long teamSizesIndex = offset / SCENARIOS.length;
+
+        // Decode both mixed-radix numbers with the first team as the most significant digit
+        Integer[] teamSizes = new Integer[numTeams];
+        SoccerStrategy[] cellStrategies = new SoccerStrategy[numTeams];
+        int sizeRadix = maxTeamSize - minTeamSize + 1;
+        for (int t = numTeams - 1; t >= 0; t--) {
+            teamSizes[t] = minTeamSize + (int) (teamSizesIndex % sizeRadix);
+            teamSizesIndex /= sizeRadix;
+            cellStrategies[t] = strategies.get((int) (strategyIndex % strategies.size()));
+            strategyIndex /= strategies.size();
+        }
+        return new SweepCell(index, SimulationRandom.deriveSeed(seed, index), bound, adjacentRadius,
+                Arrays.asList(teamSizes), scenario, new ArrayList<>(Arrays.asList(cellStrategies)));
+    }
+
+    private SweepCell sampledCell(long index) {
+        int sample = sampleOf(index);
+        int bound = minBound + level(sample, 0, maxBound - minBound + 1);
+        double adjacentRadius = minRadius + level(sample, 1, radiusCount) * radiusStep;
+        int numTeams = minTeams + level(sample, 2, maxTeams - minTeams + 1);
+        SoccerSimulation.StartingScenario scenario = SCENARIOS[level(sample, 3, SCENARIOS.length)];
+        long strategyIndex = index - sampleStart[sample];
+
+        Integer[] teamSizes = new Integer[numTeams];
+        SoccerStrategy[] cellStrategies = new SoccerStrategy[numTeams];
+        for (int t = numTeams - 1; t >= 0; t--) {
+            teamSizes[t] = minTeamSize + level(sample, 4 + t, maxTeamSize - minTeamSize + 1);
+            cellStrategies[t] = strategies.get((int) (strategyIndex % strategies.size()));
+            strategyIndex /= strategies.size();
+        }
+        return new SweepCell(index, SimulationRandom.deriveSeed(seed, index), bound, adjacentRadius,
+                Arrays.asList(teamSizes), scenario, new ArrayList<>(Arrays.asList(cellStrategies)));
+    }
+
+    // The sample a cell index falls in; starts are strictly increasing as every sample has cells
+    private int sampleOf(long index) {
+        int sample = Arrays.binarySearch(sampleStart, index);
+        return sample >= 0 ? sample : -sample - 2;
+    }
+
+    // One of levels equally likely values of a sample along a Sobol dimension
+    private int level(int sample, int dimension, int levels) {
+        return (int) (sobol.coordinate(sample, dimension) * levels);
+    }
+
+    private static long power(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, base);
+        }
+        return result;
+    }
+}
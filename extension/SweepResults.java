@@ -0,0 +1,124 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-strategy aggregates of a sweep, keyed by strategy name and team slot
+ * (e.g. "ShortPass_Team2"). Each sweep task fills its own instance and the
+ * engine merges them once the task completes, so no map is shared between threads.
+ *
+ * Keys are numbered densely in the order they are first seen, and the statistics live
+ * in a StrategyAggregator under those ids. Callers that record often look the ids up
+ * once (keyId) and record by id, which neither hashes nor allocates.
+ */
+public class SweepResults {
+    public final StrategyAggregator aggregator = new StrategyAggregator();
+    public final PrecisionSummary precision = new PrecisionSummary(); // Of every cell run
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    public int keyId(String key) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = keys.size();
+            keys.add(key);
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    public List<String> keys() {
+        return keys;
+    }
+
+    public void addCellPrecision(CellPrecision cellPrecision) {
+        precision.add(cellPrecision);
+    }
+
+    public void record(int id, double winRate, double avgMovingDistance,
+                       double avgSuccessfulPasses, double avgFailedPasses) {
+        aggregator.record(id, winRate, avgMovingDistance, avgSuccessfulPasses, avgFailedPasses);
+    }
+
+    public void record(String key, double winRate, double avgMovingDistance,
+                       double avgSuccessfulPasses, double avgFailedPasses) {
+        record(keyId(key), winRate, avgMovingDistance, avgSuccessfulPasses, avgFailedPasses);
+    }
+
+    public SweepResults merge(SweepResults other) {
+        for (int otherId = 0; otherId < other.keys.size(); otherId++) {
+            aggregator.merge(keyId(other.keys.get(otherId)), other.aggregator, otherId);
+        }
+        precision.merge(other.precision);
+        return this;
+    }
+
+    // Sum of one metric over everything recorded under each key
+    public Map<String, Double> sums(int metric) {
+        Map<String, Double> sums = new HashMap<>();
+        for (int id = 0; id < keys.size(); id++) {
+            sums.put(keys.get(id), aggregator.sum(id, metric));
+        }
+        return sums;
+    }
+
+    public Map<String, Double> strategyWinRates() {
+        return sums(StrategyAggregator.WIN_RATE);
+    }
+
+    public Map<String, Double> strategyMovingDistances() {
+        return sums(StrategyAggregator.MOVING_DISTANCE);
+    }
+
+    public Map<String, Double> strategySuccessfulPasses() {
+        return sums(StrategyAggregator.SUCCESSFUL_PASSES);
+    }
+
+    public Map<String, Double> strategyFailedPasses() {
+        return sums(StrategyAggregator.FAILED_PASSES);
+    }
+
+    // Binary form used by checkpoints and cluster workers: key count, then each key with
+    // its record count and the sum, sum of squares, minimum and maximum of every metric,
+    // then the precision summary of the cells, the same size however many there were
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(keys.size());
+        for (int id = 0; id < keys.size(); id++) {
+            out.writeUTF(keys.get(id));
+            out.writeLong(aggregator.count(id));
+            for (int metric = 0; metric < StrategyAggregator.METRICS; metric++) {
+                out.writeDouble(aggregator.sum(id, metric));
+                out.writeDouble(aggregator.sumOfSquares(id, metric));
+                out.writeDouble(aggregator.min(id, metric));
+                out.writeDouble(aggregator.max(id, metric));
+            }
+        }
+        precision.write(out);
+    }
+
+    public static SweepResults read(DataInput in) throws IOException {
+        SweepResults results = new SweepResults();
+        int keys = in.readInt();
+        double[] sum = new double[StrategyAggregator.METRICS];
+        double[] sumOfSquares = new double[StrategyAggregator.METRICS];
+        double[] min = new double[StrategyAggregator.METRICS];
+        double[] max = new double[StrategyAggregator.METRICS];
+        for (int i = 0; i < keys; i++) {
+            int id = results.keyId(in.readUTF());
+            long count = in.readLong();
+            for (int metric = 0; metric < StrategyAggregator.METRICS; metric++) {
+                sum[metric] = in.readDouble();
+                sumOfSquares[metric] = in.readDouble();
+                min[metric] = in.readDouble();
+                max[metric] = in.readDouble();
+            }
+            results.aggregator.set(id, count, sum, sumOfSquares, min, max);
+        }
+        results.precision.merge(PrecisionSummary.read(in));
+        return results;
+    }
+}
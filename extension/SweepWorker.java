@@ -0,0 +1,50 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Worker side of a cluster sweep. It greets the coordinator with the description of
+ * the sweep it was started for, then runs every shard the coordinator sends and answers
+ * with the shard's aggregates, until it is told to stop or its input closes.
+ *
+ * Protocol (big-endian, see SweepCluster): worker sends magic and description; then per
+ * shard the coordinator sends (from, to), and the worker replies (from, to, results).
+ * A negative from asks the worker to exit.
+ */
+public final class SweepWorker {
+    static final int MAGIC = 0x5357524B; // "SWRK"
+
+    private SweepWorker() {
+    }
+
+    public static void serve(InputStream in, OutputStream out, SweepGrid grid, SweepEngine engine)
+            throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+        output.writeInt(MAGIC);
+        output.writeUTF(grid.describe(engine.getTrialPolicy()));
+        output.flush();
+        while (true) {
+            long from;
+            try {
+                from = input.readLong();
+            } catch (EOFException e) {
+                return; // Coordinator went away; nothing left to report to
+            }
+            if (from < 0) {
+                return;
+            }
+            long to = input.readLong();
+            SweepResults results = engine.run(grid, from, to);
+            output.writeLong(from);
+            output.writeLong(to);
+            results.write(output);
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Plays trials on virtual threads, one per trial. A semaphore caps the simulations
+ * alive at once across every cell at a multiple of the CPU count, and each formation's
+ * results come back through a bounded queue to the thread that aggregates them, in
+ * trial order, so the totals match a sequential run exactly. The trial policy bounds how
+ * far ahead of the reader trials start, so none is played past its cap.
+ *
+ * The aggregating thread only waits on the queue, so whatever it does between results
+ * (writing trial rows, printing progress) never holds up the simulations.
+ */
+public final class TrialExecutor implements AutoCloseable {
+    public static final int DEFAULT_SIMULATIONS_PER_CPU = 2;
+
+    private final int maxLive;
+    private final Semaphore live;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TrialExecutor(int simulationsPerCpu) {
+        if (simulationsPerCpu < 1) {
+            throw new IllegalArgumentException("Need at least one simulation per CPU, not " + simulationsPerCpu);
+        }
+        this.maxLive = simulationsPerCpu * Runtime.getRuntime().availableProcessors();
+        this.live = new Semaphore(maxLive);
+    }
+
+    public TrialExecutor() {
+        this(DEFAULT_SIMULATIONS_PER_CPU);
+    }
+
+    public int getMaxLiveSimulations() {
+        return maxLive;
+    }
+
+    // Starts playing trials with seeds drawn from the stream, as far ahead as the policy allows;
+    // read them in order from the returned Trials
+    public Trials start(TrialSeeds seeds, TrialPolicy policy, Trial trial) {
+        return new Trials(seeds, policy, trial);
+    }
+
+    @Override
+    public void close() {
+        threads.close();
+    }
+
+    public interface Trial {
+        SoccerSimulation.SimulationResult play(long seed);
+    }
+
+    /**
+     * One formation's trials. next() keeps up to maxLive trials ahead of the reader while
+     * permits and the policy's launch limit allow; close() waits for trials still running
+     * and hands their seeds back.
+     * Not thread-safe: only the aggregating thread uses it.
+     */
+    public final class Trials implements AutoCloseable {
+        private final TrialSeeds seeds;
+        private final TrialPolicy policy;
+        private final Trial trial;
+        private final BlockingQueue<Finished> queue = new ArrayBlockingQueue<>(maxLive); // Never fills: at most maxLive in flight
+        private final long[] seedOf = new long[maxLive]; // By trial number modulo maxLive
+        private final Finished[] arrived = new Finished[maxLive];
+        private int launched;
+        private int received;
+        private int read;
+
+        private Trials(TrialSeeds seeds, TrialPolicy policy, Trial trial) {
+            this.seeds = seeds;
+            this.policy = policy;
+            this.trial = trial;
+        }
+
+        public SoccerSimulation.SimulationResult next() {
+            int limit = Math.min(policy.launchLimit(read), read + maxLive);
+            if (read >= limit) {
+                throw new IllegalStateException("Read past the trial policy's cap of " + policy.maxTrials);
+            }
+            try {
+                if (launched == read) {
+                    live.acquire(); // Nothing in flight for this formation: wait for a permit
+                    launch();
+                }
+                while (launched < limit && live.tryAcquire()) {
+                    launch();
+                }
+                while (arrived[read % maxLive] == null) {
+                    Finished finished = queue.take();
+                    received++;
+                    arrived[finished.number % maxLive] = finished;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for trials", e);
+            }
+            Finished finished = arrived[read % maxLive];
+            arrived[read % maxLive] = null;
+            read++;
+            if (finished.failure != null) {
+                if (finished.failure instanceof Error) {
+                    throw (Error) finished.failure;
+                }
+                throw (RuntimeException) finished.failure;
+            }
+            return finished.result;
+        }
+
+        // Called with a permit held, which the trial releases when its simulation is done
+        private void launch() {
+            int number = launched++;
+            long seed = seeds.next();
+            seedOf[number % maxLive] = seed;
+            threads.execute(() -> {
+                Finished finished;
+                try {
+                    finished = new Finished(number, trial.play(seed), null);
+                } catch (RuntimeException | Error e) {
+                    finished = new Finished(number, null, e);
+                } finally {
+                    live.release();
+                }
+                queue.add(finished);
+            });
+        }
+
+        @Override
+        public void close() {
+            boolean interrupted = false;
+            while (received < launched) {
+                try {
+                    queue.take();
+                    received++;
+                } catch (InterruptedException e) {
+                    interrupted = true; // Keep draining: the trials still hold their permits
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            for (int number = launched - 1; number >= read; number--) {
+                seeds.unread(seedOf[number % maxLive]);
+            }
+        }
+    }
+
+    private static final class Finished {
+        final int number;
+        final SoccerSimulation.SimulationResult result;
+        final Throwable failure;
+
+        Finished(int number, SoccerSimulation.SimulationResult result, Throwable failure) {
+            this.number = number;
+            this.result = result;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * How many trials runTrials plays per formation. A fixed policy always plays the same
+ * number. An adaptive one plays at least minTrials, then stops as soon as the confidence
+ * intervals on every team's win rate and on the average successful and failed passes are
+ * all narrower than their targets, or when maxTrials is reached. Past minTrials any trial
+ * may be the last, so an executor starts at most lookAhead trials ahead of the reader.
+ */
+public final class TrialPolicy {
+    public static final int DEFAULT_LOOK_AHEAD = 4;
+
+    public final int minTrials;
+    public final int maxTrials;
+    public final double z;                  // z score of the confidence level, e.g. 1.96 for 95%
+    public final double winRateWidth;       // Target full width of the win rate interval
+    public final double passesRelativeWidth; // Target full width of the passes intervals, relative to the mean
+    public final int lookAhead;             // Trials an executor may start past minTrials ahead of the reader
+
+    private TrialPolicy(int minTrials, int maxTrials, double z, double winRateWidth, double passesRelativeWidth,
+                        int lookAhead) {
+        if (minTrials < 1 || maxTrials < minTrials) {
+            throw new IllegalArgumentException("Invalid trial bounds: " + minTrials + ".." + maxTrials);
+        }
+        if (lookAhead < 1) {
+            throw new IllegalArgumentException("Need to look at least one trial ahead, not " + lookAhead);
+        }
+        this.minTrials = minTrials;
+        this.maxTrials = maxTrials;
+        this.z = z;
+        this.winRateWidth = winRateWidth;
+        this.passesRelativeWidth = passesRelativeWidth;
+        this.lookAhead = lookAhead;
+    }
+
+    public static TrialPolicy fixed(int trials) {
+        return new TrialPolicy(trials, trials, 0, 0, 0, trials);
+    }
+
+    public static TrialPolicy adaptive(int minTrials, int maxTrials, double z, double winRateWidth,
+                                       double passesRelativeWidth, int lookAhead) {
+        return new TrialPolicy(minTrials, maxTrials, z, winRateWidth, passesRelativeWidth, lookAhead);
+    }
+
+    public static TrialPolicy adaptive(int minTrials, int maxTrials, double z,
+                                       double winRateWidth, double passesRelativeWidth) {
+        return adaptive(minTrials, maxTrials, z, winRateWidth, passesRelativeWidth, DEFAULT_LOOK_AHEAD);
+    }
+
+    // 95% intervals, win rate within +-2.5 points and passes within +-5% of their mean, 30 to 1000 trials
+    public static TrialPolicy defaultAdaptive() {
+        return adaptive(30, 1000, 1.96, 0.05, 0.10);
+    }
+
+    public boolean isFixed() {
+        return minTrials == maxTrials;
+    }
+
+    // Number of trials that may have been started once read of them have been checked: all
+    // of the first minTrials, since every one of them is played, then lookAhead past the
+    // ones read, and never more than maxTrials
+    public int launchLimit(int read) {
+        return Math.min(maxTrials, Math.max(minTrials, read + lookAhead));
+    }
+
+    // winRates holds one team's wins per entry, each observed once per trial like the passes
+    public boolean shouldStop(RunningStats[] winRates, RunningStats successfulPasses, RunningStats failedPasses) {
+        long trials = successfulPasses.count();
+        if (trials >= maxTrials) {
+            return true;
+        }
+        if (trials < minTrials) {
+            return false;
+        }
+        for (RunningStats winRate : winRates) {
+            if (2 * winRate.halfWidth(z) > winRateWidth) {
+                return false;
+            }
+        }
+        return 2 * successfulPasses.halfWidth(z) <= passesRelativeWidth * Math.abs(successfulPasses.mean())
+                && 2 * failedPasses.halfWidth(z) <= passesRelativeWidth * Math.abs(failedPasses.mean());
+    }
+
+    @Override
+    public String toString() {
+        return isFixed() ? "fixed(" + maxTrials + ")"
+                : "adaptive(" + minTrials + ".." + maxTrials + ", z=" + z
+                  + ", winRateWidth=" + winRateWidth + ", passesRelativeWidth=" + passesRelativeWidth
+                  + ", lookAhead=" + lookAhead + ")";
+    }
+}
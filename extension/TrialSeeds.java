@@ -0,0 +1,26 @@
+import java.util.ArrayDeque;
+
+/**
+ * The seeds of one cell's trials, drawn in order from the cell's stream. A
+ * TrialExecutor may draw seeds ahead of the trials it reports; the seeds of trials it
+ * started but nobody needed are handed back and come out again first, so the next
+ * formation plays exactly the trials it would have played one at a time.
+ */
+public final class TrialSeeds {
+    private final SimulationRandom random;
+    private final ArrayDeque<Long> returned = new ArrayDeque<>();
+
+    public TrialSeeds(long seed) {
+        this.random = new SimulationRandom(seed);
+    }
+
+    public long next() {
+        Long seed = returned.pollFirst();
+        return seed != null ? seed : random.nextSeed();
+    }
+
+    // Puts a seed back in front of the stream; seeds go back in reverse of the order drawn
+    public void unread(long seed) {
+        returned.addFirst(seed);
+    }
+}
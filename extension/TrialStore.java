@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongPredicate;
+
+/**
+ * Append-only columnar store of every trial a sweep plays. Each column is its own file
+ * of fixed-width big-endian values, one per trial, so row r of every column sits at
+ * r * width and TrialStoreReader can map the files and scan them directly. A meta file
+ * holds the description of the sweep the rows belong to.
+ *
+ * Trials are collected in per-thread Batches that live across cells and are appended to
+ * all columns at once under the store's lock when BATCH_ROWS rows have built up, or
+ * when flushBatches is called before a checkpoint save. A crash can leave columns of
+ * different lengths; opening the store cuts them back to the shortest one, and a
+ * resumed SweepCheckpoint cuts it back further to the rows it recorded.
+ */
+public final class TrialStore implements AutoCloseable {
+    public static final int MAX_TEAMS = 8; // Width of the scores column, in teams
+    static final int BATCH_ROWS = 1 << 16;
+    static final String META = "store.meta";
+
+    // Columns, their file names and their widths in bytes
+    static final int CELL = 0, FORMATION = 1, TRIAL = 2, TEAMS = 3, OUTCOME = 4, WINNER = 5, ITERATIONS = 6,
+            SUCCESSFUL_PASSES = 7, FAILED_PASSES = 8, MOVING_DISTANCE = 9, SCORES = 10;
+    static final String[] NAMES = {"cell", "formation", "trial", "teams", "outcome", "winner", "iterations",
+            "successfulPasses", "failedPasses", "movingDistance", "scores"};
+    static final int[] WIDTHS = {Long.BYTES, Integer.BYTES, Integer.BYTES, Byte.BYTES, Byte.BYTES, Byte.BYTES,
+            Integer.BYTES, Integer.BYTES, Integer.BYTES, Double.BYTES, MAX_TEAMS * Short.BYTES};
+
+    private final FileChannel[] channels = new FileChannel[NAMES.length];
+    private final List<Batch> batches = new CopyOnWriteArrayList<>(); // Every batch handed out, for flushBatches
+    private long rows;
+
+    private TrialStore(Path directory, String description) throws IOException {
+        Files.createDirectories(directory);
+        Path meta = directory.resolve(META);
+        if (Files.exists(meta)) {
+            String stored = Files.readString(meta, StandardCharsets.UTF_8);
+            if (!stored.equals(description)) {
+                throw new IllegalStateException("Trial store " + directory + " belongs to another sweep: " + stored);
+            }
+        } else {
+            Files.writeString(meta, description, StandardCharsets.UTF_8);
+        }
+        rows = Long.MAX_VALUE;
+        for (int c = 0; c < channels.length; c++) {
+            channels[c] = FileChannel.open(directory.resolve(NAMES[c] + ".col"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rows = Math.min(rows, channels[c].size() / WIDTHS[c]);
+        }
+        for (int c = 0; c < channels.length; c++) {
+            channels[c].truncate(rows * WIDTHS[c]);
+            channels[c].position(channels[c].size());
+        }
+    }
+
+    /**
+     * Opens the store in the directory for appending, creating it if needed. A store
+     * written for a different sweep is rejected rather than mixed in.
+     */
+    public static TrialStore open(Path directory, String description) throws IOException {
+        return new TrialStore(directory, description);
+    }
+
+    public synchronized long rows() {
+        return rows;
+    }
+
+    /**
+     * Cuts the store back to its first rows rows, then drops those whose cell keepCell
+     * rejects, moving the later rows down over them. Rows are read and rewritten a batch
+     * at a time; a run of kept rows at the start is left untouched.
+     */
+    public synchronized void rewind(long rows, LongPredicate keepCell) throws IOException {
+        if (rows > this.rows) {
+            throw new IllegalStateException("Trial store holds " + this.rows + " rows, fewer than the "
+                    + rows + " its checkpoint recorded");
+        }
+        ByteBuffer[] columns = new ByteBuffer[channels.length];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = ByteBuffer.allocate(BATCH_ROWS * WIDTHS[c]);
+        }
+        long kept = 0;
+        for (long first = 0; first < rows; first += BATCH_ROWS) {
+            int count = (int) Math.min(BATCH_ROWS, rows - first);
+            read(columns[CELL], CELL, first, count);
+            boolean[] keep = new boolean[count];
+            int keeping = 0;
+            for (int i = 0; i < count; i++) {
+                keep[i] = keepCell.test(columns[CELL].getLong(i * Long.BYTES));
+                keeping += keep[i] ? 1 : 0;
+            }
+            if (keeping == count && kept == first) {
+                kept += count; // Already in place
+                continue;
+            }
+            for (int c = 0; c < channels.length; c++) {
+                if (c != CELL) {
+                    read(columns[c], c, first, count);
+                }
+                byte[] bytes = columns[c].array();
+                int width = WIDTHS[c];
+                int to = 0;
+                for (int i = 0; i < count; i++) {
+                    if (keep[i]) {
+                        System.arraycopy(bytes, i * width, bytes, to++ * width, width);
+                    }
+                }
+                ByteBuffer moved = ByteBuffer.wrap(bytes, 0, keeping * width);
+                long position = kept * width;
+                while (moved.hasRemaining()) {
+                    position += channels[c].write(moved, position);
+                }
+            }
+            kept += keeping;
+        }
+        for (int c = 0; c < channels.length; c++) {
+            channels[c].truncate(kept * WIDTHS[c]);
+            channels[c].position(kept * WIDTHS[c]);
+        }
+        this.rows = kept;
+        force();
+    }
+
+    // Reads count rows of a column, from row first on, into the start of the buffer
+    private void read(ByteBuffer column, int c, long first, int count) throws IOException {
+        column.clear().limit(count * WIDTHS[c]);
+        long position = first * WIDTHS[c];
+        while (column.hasRemaining()) {
+            int read = channels[c].read(column, position);
+            if (read < 0) {
+                throw new IOException("Trial store column " + NAMES[c] + " ends before row " + (first + count));
+            }
+            position += read;
+        }
+        column.clear();
+    }
+
+    public Batch newBatch() {
+        Batch batch = new Batch();
+        batches.add(batch);
+        return batch;
+    }
+
+    // Appends the rows every batch holds. Not synchronized on the store: each flush takes
+    // its batch's lock and then the store's, the order a filling batch takes them in
+    public void flushBatches() throws IOException {
+        for (Batch batch : batches) {
+            batch.flush();
+        }
+    }
+
+    private synchronized void append(ByteBuffer[] columns, int count) throws IOException {
+        for (int c = 0; c < channels.length; c++) {
+            ByteBuffer column = columns[c];
+            column.flip();
+            while (column.hasRemaining()) {
+                channels[c].write(column);
+            }
+            column.clear();
+        }
+        rows += count;
+    }
+
+    public synchronized void force() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBatches();
+        synchronized (this) {
+            force();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Rows collected by one sweep thread before they are appended to the store. Each
+     * thread fills its own batch, so its lock is only contended when flushBatches runs.
+     */
+    public final class Batch {
+        private final ByteBuffer[] columns = new ByteBuffer[NAMES.length];
+        private int count;
+        private long cell;
+        private int formation;
+
+        private Batch() {
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = ByteBuffer.allocate(BATCH_ROWS * WIDTHS[c]);
+            }
+        }
+
+        // Sets the cell and formation the following trials belong to
+        public void select(long cell, int formation) {
+            this.cell = cell;
+            this.formation = formation;
+        }
+
+        public synchronized void add(int trial, int teams, SoccerSimulation.SimulationResult result) throws IOException {
+            if (teams > MAX_TEAMS) {
+                throw new IllegalArgumentException("Trial store holds at most " + MAX_TEAMS + " teams, not " + teams);
+            }
+            // The winner is the team with the most goals, the first on ties, or -1 if nobody scored
+            int winner = -1, best = 0;
+            ByteBuffer scores = columns[SCORES];
+            for (int t = 0; t < MAX_TEAMS; t++) {
+                int score = t < teams ? result.teamScores.getOrDefault((char) ('A' + t), 0) : -1;
+                scores.putShort((short) score);
+                if (score > best) {
+                    best = score;
+                    winner = t;
+                }
+            }
+            columns[CELL].putLong(cell);
+            columns[FORMATION].putInt(formation);
+            columns[TRIAL].putInt(trial);
+            columns[TEAMS].put((byte) teams);
+            columns[OUTCOME].put((byte) result.outcome.ordinal());
+            columns[WINNER].put((byte) winner);
+            columns[ITERATIONS].putInt(result.totalIterations);
+            columns[SUCCESSFUL_PASSES].putInt(result.successfulPasses);
+            columns[FAILED_PASSES].putInt(result.failedPasses);
+            columns[MOVING_DISTANCE].putDouble(result.totalMovingDistance);
+            if (++count == BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        public synchronized void flush() throws IOException {
+            if (count > 0) {
+                append(columns, count);
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a TrialStore. Every column file is memory-mapped, in segments of
+ * SEGMENT_ROWS rows so stores past the 2 GB limit of one mapping still work, and rows
+ * are read in place: scanning millions of trials touches no heap beyond the mappings.
+ * Only the rows present in every column when the reader was opened are visible.
+ */
+public final class TrialStoreReader {
+    private static final int SEGMENT_BITS = 24;
+    private static final long SEGMENT_ROWS = 1L << SEGMENT_BITS;
+
+    public final String description;
+    private final long rows;
+    private final MappedByteBuffer[][] segments; // [column][segment]
+
+    private TrialStoreReader(Path directory) throws IOException {
+        description = Files.readString(directory.resolve(TrialStore.META), StandardCharsets.UTF_8);
+        int columns = TrialStore.NAMES.length;
+        FileChannel[] channels = new FileChannel[columns];
+        try {
+            long shortest = Long.MAX_VALUE;
+            for (int c = 0; c < columns; c++) {
+                channels[c] = FileChannel.open(directory.resolve(TrialStore.NAMES[c] + ".col"), StandardOpenOption.READ);
+                shortest = Math.min(shortest, channels[c].size() / TrialStore.WIDTHS[c]);
+            }
+            rows = shortest;
+            int count = (int) ((rows + SEGMENT_ROWS - 1) >>> SEGMENT_BITS);
+            segments = new MappedByteBuffer[columns][count];
+            for (int c = 0; c < columns; c++) {
+                long width = TrialStore.WIDTHS[c];
+                for (int s = 0; s < count; s++) {
+                    long first = s * SEGMENT_ROWS;
+                    long length = Math.min(SEGMENT_ROWS, rows - first) * width;
+                    segments[c][s] = channels[c].map(FileChannel.MapMode.READ_ONLY, first * width, length);
+                }
+            }
+        } finally {
+            // Mappings stay valid after their channel is closed
+            for (FileChannel channel : channels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    public static TrialStoreReader open(Path directory) throws IOException {
+        return new TrialStoreReader(directory);
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long cell(long row) {
+        return segment(TrialStore.CELL, row).getLong(offset(TrialStore.CELL, row));
+    }
+
+    public int formation(long row) {
+        return segment(TrialStore.FORMATION, row).getInt(offset(TrialStore.FORMATION, row));
+    }
+
+    public int trial(long row) {
+        return segment(TrialStore.TRIAL, row).getInt(offset(TrialStore.TRIAL, row));
+    }
+
+    public int teams(long row) {
+        return segment(TrialStore.TEAMS, row).get(offset(TrialStore.TEAMS, row));
+    }
+
+    public SoccerSimulation.SimulationResult.Outcome outcome(long row) {
+        return SoccerSimulation.SimulationResult.Outcome.values()[segment(TrialStore.OUTCOME, row)
+                .get(offset(TrialStore.OUTCOME, row))];
+    }
+
+    // Team with the most goals, the first on ties, or -1 if nobody scored
+    public int winner(long row) {
+        return segment(TrialStore.WINNER, row).get(offset(TrialStore.WINNER, row));
+    }
+
+    public int iterations(long row) {
+        return segment(TrialStore.ITERATIONS, row).getInt(offset(TrialStore.ITERATIONS, row));
+    }
+
+    public int successfulPasses(long row) {
+        return segment(TrialStore.SUCCESSFUL_PASSES, row).getInt(offset(TrialStore.SUCCESSFUL_PASSES, row));
+    }
+
+    public int failedPasses(long row) {
+        return segment(TrialStore.FAILED_PASSES, row).getInt(offset(TrialStore.FAILED_PASSES, row));
+    }
+
+    public double movingDistance(long row) {
+        return segment(TrialStore.MOVING_DISTANCE, row).getDouble(offset(TrialStore.MOVING_DISTANCE, row));
+    }
+
+    public int score(long row, int team) {
+        if (team < 0 || team >= TrialStore.MAX_TEAMS) {
+            throw new IndexOutOfBoundsException("Team " + team + " outside the scores column");
+        }
+        return segment(TrialStore.SCORES, row).getShort(offset(TrialStore.SCORES, row) + team * Short.BYTES);
+    }
+
+    private MappedByteBuffer segment(int column, long row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside store of " + rows + " rows");
+        }
+        return segments[column][(int) (row >>> SEGMENT_BITS)];
+    }
+
+    private static int offset(int column, long row) {
+        return (int) (row & (SEGMENT_ROWS - 1)) * TrialStore.WIDTHS[column];
+    }
+}
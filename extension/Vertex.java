@@ -30,6 +30,13 @@ public class Vertex {
     public int socialCount; // Number of adjacent teammates
     
     public boolean hasBall;
+    
+    private PositionListener listener; // Owning simulation's indexes over player positions, if any
+    int slot = -1; // Position of this player in the owning simulation's players list
+    
+    interface PositionListener {
+        void positionChanged(Vertex player);
+    }
 
     public Vertex(double x, double y, double z, char team) {
         this.x = x;
@@ -45,20 +52,33 @@ public class Vertex {
     public Vertex(double x, double y, char team) {
         this(x, y, 0, team);
     }
+
+    // Puts a reused player back in the state of a new one at the given position. The owning
+    // simulation keeps its listener attached; callers rebuild its indexes afterwards
+    void reset(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.hasBall = false;
+        this.socialCount = 0;
+        this.playerIndex = -1;
+        this.goalIndex = -1;
+        edges.clear();
+    }
     public void move(double dx, double dy, double dz, double boundX, double boundY, double boundZ) {
         x = Math.max(-boundX, Math.min(boundX, x + dx));
         y = Math.max(-boundY, Math.min(boundY, y + dy));
         z = Math.max(-boundZ, Math.min(boundZ, z + dz));
+        positionChanged();
     }
     
     public void move(double dx, double dy, double boundX, double boundY) {
         move(dx, dy, 0, boundX, boundY, 0);
     }
     public void moveTowardsGoal(double boundX, double boundY, double boundZ, int goalIndex) {
-        double[] goalCoordinates = getGoalCoordinates(boundX, boundY, boundZ, goalIndex);
-        double goalX = goalCoordinates[0];
-        double goalY = goalCoordinates[1];
-        double goalZ = goalCoordinates[2];
+        double goalX = goalX(goalIndex);
+        double goalY = goalY(boundY, goalIndex);
+        double goalZ = goalZ(boundZ, goalIndex);
         
         // Calculate direction vector
         double dx = goalX - this.x;
@@ -81,48 +101,22 @@ public class Vertex {
         this.x = newX;
         this.y = newY;
         this.z = newZ;
+        positionChanged();
     }
     
-    private double[] getGoalCoordinates(double boundX, double boundY, double boundZ, int goalIndex) {
-        double[] coordinates = new double[3];
-        
-        switch (goalIndex) {
-            case 0: // x = 0, y = -bound, z = 0
-                coordinates[0] = 0;
-                coordinates[1] = -boundY;
-                coordinates[2] = 0;
-                break;
-            case 1: // x = 0, y = bound, z = 0
-                coordinates[0] = 0;
-                coordinates[1] = boundY;
-                coordinates[2] = 0;
-                break;
-            case 2: // x = 100, y = 0, z = 0
-                coordinates[0] = 100;
-                coordinates[1] = 0;
-                coordinates[2] = 0;
-                break;
-            case 3: // x = -100, y = 0, z = 0
-                coordinates[0] = -100;
-                coordinates[1] = 0;
-                coordinates[2] = 0;
-                break;
-            case 4: // x = 0, y = 0, z = bound
-                coordinates[0] = 0;
-                coordinates[1] = 0;
-                coordinates[2] = boundZ;
-                break;
-            case 5: // x = 0, y = 0, z = -bound
-                coordinates[0] = 0;
-                coordinates[1] = 0;
-                coordinates[2] = -boundZ;
-                break;
-            default:
-                coordinates[0] = 0;
-                coordinates[1] = 0;
-                coordinates[2] = 0;
-        }
-        return coordinates;
+    // Goal positions by index, one axis at a time so callers need no array:
+    // 0 is (0, -boundY, 0), 1 is (0, boundY, 0), 2 is (100, 0, 0), 3 is (-100, 0, 0),
+    // 4 is (0, 0, boundZ), 5 is (0, 0, -boundZ) and any other index the origin
+    private static double goalX(int goalIndex) {
+        return goalIndex == 2 ? 100 : goalIndex == 3 ? -100 : 0;
+    }
+    
+    private static double goalY(double boundY, int goalIndex) {
+        return goalIndex == 0 ? -boundY : goalIndex == 1 ? boundY : 0;
+    }
+    
+    private static double goalZ(double boundZ, int goalIndex) {
+        return goalIndex == 4 ? boundZ : goalIndex == 5 ? -boundZ : 0;
     }
     
     public void moveAwayFromOpponents(List<Vertex> opponents, double boundX, double boundY, double boundZ, boolean isControllingTeam, int goalIndex) {
@@ -175,17 +169,18 @@ public class Vertex {
             
             // For team controlling the ball, never move away from opponent's goal
             if (isControllingTeam) {
-                double[] goalCoordinates = getGoalCoordinates(boundX, boundY, boundZ, goalIndex);
-                double goalX = goalCoordinates[0];
-                double goalY = goalCoordinates[1];
-                double goalZ = goalCoordinates[2];
+                double goalX = goalX(goalIndex);
+                double goalY = goalY(boundY, goalIndex);
+                double goalZ = goalZ(boundZ, goalIndex);
                 
-                // Calculate current and new distances to goal
-                double currentDist = Math.sqrt(Math.pow(this.x - goalX, 2) + Math.pow(this.y - goalY, 2) + Math.pow(this.z - goalZ, 2));
-                double newDist = Math.sqrt(Math.pow(newX - goalX, 2) + Math.pow(newY - goalY, 2) + Math.pow(newZ - goalZ, 2));
+                // Compare current and new squared distances to goal
+                double currentX = this.x - goalX, currentY = this.y - goalY, currentZ = this.z - goalZ;
+                double nextX = newX - goalX, nextY = newY - goalY, nextZ = newZ - goalZ;
+                double currentSquared = currentX * currentX + currentY * currentY + currentZ * currentZ;
+                double newSquared = nextX * nextX + nextY * nextY + nextZ * nextZ;
                 
                 // Check if the move would take the player away from the opponent's goal
-                boolean movingAwayFromGoal = newDist > currentDist;
+                boolean movingAwayFromGoal = newSquared > currentSquared;
                 
                 if (movingAwayFromGoal) {
                     // Only update coordinates that don't increase distance to goal
@@ -204,6 +199,7 @@ public class Vertex {
                 this.y = newY;
                 this.z = newZ;
             }
+            positionChanged();
         }
     }
     
@@ -213,10 +209,34 @@ public class Vertex {
                         Math.pow(this.z - other.z, 2));
     }
     public double distanceToGoal(double boundX, double boundY, double boundZ, int goalIndex) {
-        double[] goalCoords = getGoalCoordinates(boundX, boundY, boundZ, goalIndex);
-        return Math.sqrt(Math.pow(this.x - goalCoords[0], 2) + 
-                        Math.pow(this.y - goalCoords[1], 2) + 
-                        Math.pow(this.z - goalCoords[2], 2));
+        return Math.sqrt(squaredDistanceToGoal(boundX, boundY, boundZ, goalIndex));
+    }
+    
+    // For "closer than" checks, which need no square root
+    public double squaredDistanceToGoal(double boundX, double boundY, double boundZ, int goalIndex) {
+        double dx = this.x - goalX(goalIndex);
+        double dy = this.y - goalY(boundY, goalIndex);
+        double dz = this.z - goalZ(boundZ, goalIndex);
+        return dx * dx + dy * dy + dz * dz;
+    }
+    
+    public double squaredDistanceTo(Vertex other) {
+        double dx = this.x - other.x;
+        double dy = this.y - other.y;
+        double dz = this.z - other.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+    
+    void attach(PositionListener listener, int slot) {
+        this.listener = listener;
+        this.slot = slot;
+    }
+    
+    // Keeps the simulation's indexes in step after any move; direct writes to x, y, z bypass them
+    private void positionChanged() {
+        if (listener != null) {
+            listener.positionChanged(this);
+        }
     }
     
     public Edge getEdgeTo(Vertex vertex){
@@ -241,6 +261,25 @@ public class Vertex {
         return adjacent;
     }
     
+    // Number of adjacentVertices() on another team, counted without building the list
+    public int countAdjacentOpponents() {
+        int count = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            Vertex other = edges.get(i).other(this);
+            if (other == null || other.team == team) {
+                continue;
+            }
+            boolean seen = false;
+            for (int j = 0; j < i && !seen; j++) {
+                seen = edges.get(j).other(this) == other;
+            }
+            if (!seen) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     public List<Edge> incidentEdges() { return new ArrayList<>(edges); }
     
     @Override
@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.ArrayList;
 
 public class VoronoiCarryingStrategy extends SoccerStrategy {
     public VoronoiCarryingStrategy() {
@@ -14,65 +13,62 @@ public class VoronoiCarryingStrategy extends SoccerStrategy {
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        // Calculate Voronoi cells for all players
-        List<Vertex> allPlayers = new ArrayList<>();
-        allPlayers.addAll(teammates);
-        allPlayers.addAll(opponents);
-        
-        double currentControlArea = calculateControlArea(ballController, allPlayers);
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        double currentControlArea = calculateControlArea(ballController, teammates, opponents);
         
         // Find the best teammate to pass to that maximizes control area
-        Vertex bestTarget = null;
-        double maxControlArea = 0;
-        
-        for (Vertex teammate : teammates) {
-            if (teammate != ballController) {
-                double newControlArea = calculateControlArea(teammate, allPlayers);
-                if (newControlArea > maxControlArea) {
-                    maxControlArea = newControlArea;
-                    bestTarget = teammate;
-                }
-            }
-        }
+        int target = passTargetSlot(simulation, ballController, teammates, opponents);
         
         // Pass if we can increase control area significantly
-        if (bestTarget != null && maxControlArea > currentControlArea * 1.1) {
-            return "pass";
+        if (target >= 0
+                && calculateControlArea(simulation.getPlayer(target), teammates, opponents) > currentControlArea * 1.1) {
+            return Action.PASS;
         }
         
         // Otherwise, try to break through
-        return "breakthrough";
+        return Action.BREAKTHROUGH;
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                      List<Vertex> teammates, List<Vertex> opponents) {
-        // Calculate Voronoi cells for all players
-        List<Vertex> allPlayers = new ArrayList<>();
-        allPlayers.addAll(teammates);
-        allPlayers.addAll(opponents);
-        
-        Vertex bestTarget = null;
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        int best = -1;
         double maxControlArea = 0;
         
-        for (Vertex teammate : teammates) {
+        for (int i = 0; i < teammates.size(); i++) {
+            Vertex teammate = teammates.get(i);
             if (teammate != ballController) {
-                double newControlArea = calculateControlArea(teammate, allPlayers);
+                double newControlArea = calculateControlArea(teammate, teammates, opponents);
                 if (newControlArea > maxControlArea) {
                     maxControlArea = newControlArea;
-                    bestTarget = teammate;
+                    best = i;
                 }
             }
         }
         
-        return bestTarget;
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 
-    private double calculateControlArea(Vertex player, List<Vertex> allPlayers) {
-        double controlArea = 0;
-        
+    // Over the teammates and then the opponents, in one running sum, without joining them into one list
+    private double calculateControlArea(Vertex player, List<Vertex> teammates, List<Vertex> opponents) {
+        return addControlArea(addControlArea(0, player, teammates), player, opponents);
+    }
+
+    private double addControlArea(double controlArea, Vertex player, List<Vertex> others) {
         // For each other player, calculate the region where player has control
-        for (Vertex otherPlayer : allPlayers) {
+        for (int i = 0; i < others.size(); i++) {
+            Vertex otherPlayer = others.get(i);
             if (otherPlayer != player) {
                 double distance = player.distanceTo(otherPlayer);
                 // Control area is proportional to the square of the distance
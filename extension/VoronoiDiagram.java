@@ -0,0 +1,380 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact Voronoi diagram of player positions on the x-y plane, clipped to a rectangle.
+ * Each site's cell is the rectangle cut by the bisector with every other site, skipping
+ * sites too far away for their bisector to reach the cell.
+ *
+ * Moving one site only changes its own cell, the cells that take over its old cell and
+ * the cells its new position cuts into, so move() recomputes just those instead of the
+ * whole diagram.
+ * Co-located sites share one cell, owned by the earliest of them in site order.
+ *
+ * A diagram is reused rather than reallocated: build() refills it in place, and
+ * markCurrent lets its owner note which positions it was last kept in step with.
+ */
+public final class VoronoiDiagram {
+    private final double minX, minY, maxX, maxY;
+    private int size;
+    private Vertex[] sites = new Vertex[0];
+    private double[] siteX = new double[0];
+    private double[] siteY = new double[0];
+    private char[] team = new char[0];
+    private int[] owner = new int[0]; // Earliest site at the same position; only owners have cells
+    private double[] area = new double[0];
+
+    // Cell polygons, counter-clockwise
+    private double[][] cellX = new double[0][];
+    private double[][] cellY = new double[0][];
+    private int[] cellSize = new int[0];
+
+    // Clipping scratch buffers
+    private double[] bufX = new double[8], bufY = new double[8], outX = new double[8], outY = new double[8];
+    private boolean[] affected = new boolean[0];
+    private int[] order = new int[0]; // Other owners by distance from the cell being built
+    private double[] distance = new double[0];
+
+    private List<Vertex> firstSites; // The lists given to build, which fix the site set
+    private List<Vertex> secondSites;
+    private long current = -1; // Position version markCurrent last noted, -1 once rebuilt
+
+    public VoronoiDiagram(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    // Rebuilds the diagram over the players of both lists, first list first
+    public void build(List<Vertex> first, List<Vertex> second) {
+        firstSites = first;
+        secondSites = second;
+        current = -1;
+        size = first.size() + second.size();
+        if (sites.length < size) {
+            sites = new Vertex[size];
+            siteX = new double[size];
+            siteY = new double[size];
+            team = new char[size];
+            owner = new int[size];
+            area = new double[size];
+            cellX = Arrays.copyOf(cellX, size);
+            cellY = Arrays.copyOf(cellY, size);
+            cellSize = new int[size];
+            affected = new boolean[size];
+            order = new int[size];
+            distance = new double[size];
+        }
+        for (int i = 0; i < size; i++) {
+            Vertex player = i < first.size() ? first.get(i) : second.get(i - first.size());
+            sites[i] = player;
+            siteX[i] = player.x;
+            siteY[i] = player.y;
+            team[i] = player.team;
+            owner[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (siteX[j] == siteX[i] && siteY[j] == siteY[i]) {
+                    owner[i] = j;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            computeCell(i);
+        }
+    }
+
+    public boolean hasBounds(double minX, double minY, double maxX, double maxY) {
+        return this.minX == minX && this.minY == minY && this.maxX == maxX && this.maxY == maxY;
+    }
+
+    // Notes that the sites stand where their players are at this version of the positions
+    public void markCurrent(long positions) {
+        current = positions;
+    }
+
+    // Whether the diagram was built from these very lists and still matches these positions
+    public boolean isCurrent(List<Vertex> first, List<Vertex> second, long positions) {
+        return current >= 0 && current == positions && firstSites == first && secondSites == second;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int indexOf(Vertex player) {
+        for (int i = 0; i < size; i++) {
+            if (sites[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double area(int site) {
+        return area[site];
+    }
+
+    /**
+     * Whether both diagrams have the same sites at the same positions and the same cells,
+     * each vertex and area within tolerance. Cells may list their vertices from a
+     * different starting corner.
+     */
+    public boolean sameCells(VoronoiDiagram other, double tolerance) {
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (sites[i] != other.sites[i] || siteX[i] != other.siteX[i] || siteY[i] != other.siteY[i]
+                    || owner[i] != other.owner[i] || Math.abs(area[i] - other.area[i]) > tolerance
+                    || !sameCell(i, other, tolerance)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether every vertex of each diagram's cell i lies within tolerance of one of the other's
+    private boolean sameCell(int i, VoronoiDiagram other, double tolerance) {
+        return cellSize[i] == other.cellSize[i] && coveredBy(i, other, tolerance) && other.coveredBy(i, this, tolerance);
+    }
+
+    private boolean coveredBy(int i, VoronoiDiagram other, double tolerance) {
+        for (int k = 0; k < cellSize[i]; k++) {
+            boolean found = false;
+            for (int l = 0; l < other.cellSize[i] && !found; l++) {
+                found = Math.abs(cellX[i][k] - other.cellX[i][l]) <= tolerance
+                        && Math.abs(cellY[i][k] - other.cellY[i][l]) <= tolerance;
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Fraction of the rectangle whose closest player is on the given team
+    public double teamArea(char teamId) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            if (team[i] == teamId) {
+                total += area[i];
+            }
+        }
+        return total / ((maxX - minX) * (maxY - minY));
+    }
+
+    /**
+     * Moves a site and updates the cells its move can change: those that may take over
+     * its old cell, and every cell its new position cuts into.
+     */
+    public void move(int site, double x, double y) {
+        if (siteX[site] == x && siteY[site] == y) {
+            return;
+        }
+        markReleased(site);
+        // Co-located sites hand the shared cell over when its owner leaves or arrives
+        double oldX = siteX[site], oldY = siteY[site];
+        siteX[site] = x;
+        siteY[site] = y;
+        assignOwner(oldX, oldY);
+        assignOwner(x, y);
+        markInvaded(site);
+        computeCell(site);
+        for (int i = 0; i < size; i++) {
+            if (affected[i]) {
+                affected[i] = false;
+                if (i != site) {
+                    computeCell(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks every site that could take over part of the site's cell once it leaves.
+     * If some site c is within d of every corner of the cell, every point of the cell
+     * stays within d of a remaining site, so only sites within reach + d of the old
+     * position can claim any of it. Sites whose cells are empty are caught too.
+     */
+    private void markReleased(int site) {
+        int n = cellSize[site];
+        if (n == 0) {
+            return;
+        }
+        double px = siteX[site], py = siteY[site];
+        double[] xs = cellX[site], ys = cellY[site];
+        double reach = 0;
+        for (int k = 0; k < n; k++) {
+            double dx = xs[k] - px, dy = ys[k] - py;
+            reach = Math.max(reach, dx * dx + dy * dy);
+        }
+        double cover = Double.MAX_VALUE;
+        for (int j = 0; j < size; j++) {
+            if (j == site) {
+                continue;
+            }
+            double farthest = 0;
+            for (int k = 0; k < n && farthest < cover; k++) {
+                double dx = xs[k] - siteX[j], dy = ys[k] - siteY[j];
+                farthest = Math.max(farthest, dx * dx + dy * dy);
+            }
+            cover = Math.min(cover, farthest);
+        }
+        double limit = Math.sqrt(reach) + Math.sqrt(cover);
+        for (int j = 0; j < size; j++) {
+            double dx = siteX[j] - px, dy = siteY[j] - py;
+            if (dx * dx + dy * dy <= limit * limit) {
+                affected[j] = true;
+            }
+        }
+    }
+
+    // Marks every cell the site now cuts into: one with a corner closer to the site than to its owner
+    private void markInvaded(int site) {
+        double px = siteX[site], py = siteY[site];
+        for (int i = 0; i < size; i++) {
+            if (affected[i] || i == site) {
+                continue;
+            }
+            double sx = siteX[i], sy = siteY[i];
+            double[] xs = cellX[i], ys = cellY[i];
+            for (int k = 0; k < cellSize[i]; k++) {
+                double ax = xs[k] - px, ay = ys[k] - py, bx = xs[k] - sx, by = ys[k] - sy;
+                if (ax * ax + ay * ay < bx * bx + by * by) {
+                    affected[i] = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Gives every site at (x, y) the earliest of them as owner, marking those whose owner changed
+    private void assignOwner(double x, double y) {
+        int first = -1;
+        for (int i = 0; i < size; i++) {
+            if (siteX[i] == x && siteY[i] == y) {
+                if (first < 0) {
+                    first = i;
+                }
+                if (owner[i] != first) {
+                    owner[i] = first;
+                    affected[i] = true;
+                }
+            }
+        }
+        if (first >= 0) {
+            affected[first] = true;
+        }
+    }
+
+    // Clips the rectangle by the bisector with every other site
+    private void computeCell(int i) {
+        ensureCapacity(size + 4);
+        double px = siteX[i], py = siteY[i];
+        int n = 4;
+        bufX[0] = minX; bufY[0] = minY;
+        bufX[1] = maxX; bufY[1] = minY;
+        bufX[2] = maxX; bufY[2] = maxY;
+        bufX[3] = minX; bufY[3] = maxY;
+        double reach = farthest(px, py, n);
+
+        if (owner[i] != i) {
+            store(i, 0); // An earlier site at the same spot owns the cell
+            return;
+        }
+        // Clip nearest sites first: the cell shrinks fastest, and once a site is too far
+        // for its bisector to reach the cell, so is every site after it
+        int count = 0;
+        for (int j = 0; j < size; j++) {
+            if (j == i || owner[j] != j) {
+                continue; // A duplicate's bisector is its owner's
+            }
+            double dx = siteX[j] - px, dy = siteY[j] - py;
+            double d = dx * dx + dy * dy;
+            int k = count++;
+            while (k > 0 && distance[k - 1] > d) {
+                distance[k] = distance[k - 1];
+                order[k] = order[k - 1];
+                k--;
+            }
+            distance[k] = d;
+            order[k] = j;
+        }
+        for (int k = 0; k < count && n > 0; k++) {
+            // The bisector is half the distance away; it cannot cut a cell it does not reach
+            if (distance[k] >= 4 * reach) {
+                break;
+            }
+            int j = order[k];
+            n = clip(n, px, py, siteX[j], siteY[j]);
+            reach = farthest(px, py, n);
+        }
+        store(i, n);
+    }
+
+    // Keeps the part of the buffered polygon closer to (px, py) than to (qx, qy)
+    private int clip(int n, double px, double py, double qx, double qy) {
+        double nx = qx - px, ny = qy - py;
+        double offset = (qx * qx + qy * qy - px * px - py * py) / 2;
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            int next = k + 1 == n ? 0 : k + 1;
+            double ax = bufX[k], ay = bufY[k], bx = bufX[next], by = bufY[next];
+            double fa = ax * nx + ay * ny - offset;
+            double fb = bx * nx + by * ny - offset;
+            if (fa <= 0) {
+                outX[m] = ax; outY[m] = ay; m++;
+                if (fb > 0) {
+                    double t = fa / (fa - fb);
+                    outX[m] = ax + t * (bx - ax); outY[m] = ay + t * (by - ay); m++;
+                }
+            } else if (fb <= 0) {
+                double t = fa / (fa - fb);
+                outX[m] = ax + t * (bx - ax); outY[m] = ay + t * (by - ay); m++;
+            }
+        }
+        double[] swapX = bufX; bufX = outX; outX = swapX;
+        double[] swapY = bufY; bufY = outY; outY = swapY;
+        return m < 3 ? 0 : m;
+    }
+
+    // Squared distance from (px, py) to the farthest vertex of the buffered polygon
+    private double farthest(double px, double py, int n) {
+        double best = 0;
+        for (int k = 0; k < n; k++) {
+            double dx = bufX[k] - px, dy = bufY[k] - py;
+            best = Math.max(best, dx * dx + dy * dy);
+        }
+        return best;
+    }
+
+    private void store(int i, int n) {
+        if (cellX[i] == null || cellX[i].length < n) {
+            int capacity = Math.max(n, 8);
+            cellX[i] = new double[capacity];
+            cellY[i] = new double[capacity];
+        }
+        System.arraycopy(bufX, 0, cellX[i], 0, n);
+        System.arraycopy(bufY, 0, cellY[i], 0, n);
+        cellSize[i] = n;
+
+        double twiceArea = 0;
+        for (int k = 0; k < n; k++) {
+            int next = k + 1 == n ? 0 : k + 1;
+            twiceArea += bufX[k] * bufY[next] - bufX[next] * bufY[k];
+        }
+        area[i] = Math.abs(twiceArea) / 2;
+    }
+
+    private void ensureCapacity(int vertices) {
+        // Each clip adds at most one vertex to a convex polygon
+        if (bufX.length < vertices) {
+            bufX = new double[vertices];
+            bufY = new double[vertices];
+            outX = new double[vertices];
+            outY = new double[vertices];
+        }
+    }
+}
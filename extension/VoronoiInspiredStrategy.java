@@ -1,7 +1,4 @@
-import java.util.Comparator;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Voronoi Inspired Strategy: Maximize the total control area calculated from VoronoiGraph
@@ -20,82 +17,69 @@ public class VoronoiInspiredStrategy extends SoccerStrategy {
         
         // If we have the ball
         if (ballController.team == teammates.get(0).team) {
-            // Move the two players closest to opponent goal forward
-            List<Vertex> forwardPlayers = teammates.stream()
-                .filter(p -> p != ballController)
-                .sorted(Comparator.comparingDouble(p -> 
-                    simulation.distanceToOpponentGoal(p)))
-                .limit(2)
-                .collect(Collectors.toList());
+            // Move the two players closest to opponent goal forward, both picked before either moves
+            int first = indexClosestToOpponentGoal(simulation, teammates, ballController, null);
+            Vertex forward = first >= 0 ? teammates.get(first) : null;
+            int second = first >= 0 ? indexClosestToOpponentGoal(simulation, teammates, ballController, forward) : -1;
+            Vertex nextForward = second >= 0 ? teammates.get(second) : null;
             
-            for (Vertex player : forwardPlayers) {
-                simulation.movePlayerTowardsOpponentGoal(player);
+            if (forward != null) {
+                simulation.movePlayerTowardsOpponentGoal(forward);
+            }
+            if (nextForward != null) {
+                simulation.movePlayerTowardsOpponentGoal(nextForward);
             }
             
             // Other players should position to maximize Voronoi area
-            for (Vertex player : teammates) {
-                if (!forwardPlayers.contains(player) && player != ballController) {
-                    positionForMaximumVoronoiArea(simulation, player, teammates, opponents);
+            VoronoiDiagram diagram = buildDiagram(simulation, teammates, opponents);
+            for (int i = 0; i < teammates.size(); i++) {
+                Vertex player = teammates.get(i);
+                if (player != forward && player != nextForward && player != ballController) {
+                    positionForMaximumVoronoiArea(simulation, player, diagram);
                 }
             }
+            diagram.markCurrent(simulation.getPositionVersion()); // Every move above updated it
             
             // Determine action for ball controller
-            String action = determineAction(simulation, ballController, teammates, opponents);
-            
-            switch (action) {
-                case "pass":
-                    Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-                    if (target != null) {
-                        simulation.pass(ballController, target);
-                    }
-                    break;
-                case "shoot":
-                    simulation.shoot(ballController);
-                    break;
-                case "breakthrough":
-                    simulation.breakthrough(ballController);
-                    break;
-                case "move":
-                default:
-                    simulation.movePlayerTowardsOpponentGoal(ballController);
-                    break;
-            }
+            Decision decision = beginDecision(simulation, ballController);
+            decision.action = decideAction(simulation, ballController, teammates, opponents);
+            perform(simulation, ballController, decision, teammates, opponents);
         } 
         // If opponents have the ball
         else {
             // Position players to cover maximum area and block passing lanes
+            VoronoiDiagram diagram = buildDiagram(simulation, teammates, opponents);
             for (Vertex player : teammates) {
                 if (simulation.distanceBetween(player, ballController) < simulation.adjacentRadius * 1.5) {
                     simulation.movePlayerTowards(player, ballController);
+                    diagram.move(diagram.indexOf(player), player.x, player.y);
                 } else {
-                    positionForMaximumVoronoiArea(simulation, player, teammates, opponents);
+                    positionForMaximumVoronoiArea(simulation, player, diagram);
                 }
             }
         }
     }
-    private void positionForMaximumVoronoiArea(SoccerSimulation simulation, Vertex player, 
-                                              List<Vertex> teammates, List<Vertex> opponents) {
+    // Each candidate move is one local diagram update, and undoing it another
+    private void positionForMaximumVoronoiArea(SoccerSimulation simulation, Vertex player, VoronoiDiagram diagram) {
         // Try different potential moves and pick the one that maximizes area
+        int site = diagram.indexOf(player);
         int bestDx = 0;
         int bestDy = 0;
-        double maxArea = calculateVoronoiArea(simulation, player, teammates, opponents);
+        double maxArea = diagram.teamArea(player.team);
+        double originalX = player.x;
+        double originalY = player.y;
         
         for (int dx = -1; dx <= 1; dx++) {
             for (int dy = -1; dy <= 1; dy++) {
                 if (dx == 0 && dy == 0) continue;
                 
-                // Temporarily move player
-                double originalX = player.x;
-                double originalY = player.y;
-                player.x += dx;
-                player.y += dy;
-                
                 // Ensure player stays within field boundaries
-                player.x = Math.max(-100, Math.min(100, player.x));
-                player.y = Math.max(-simulation.bound, Math.min(simulation.bound, player.y));
+                double x = Math.max(-100, Math.min(100, originalX + dx));
+                double y = Math.max(-simulation.bound, Math.min(simulation.bound, originalY + dy));
                 
                 // Calculate new area
-                double area = calculateVoronoiArea(simulation, player, teammates, opponents);
+                diagram.move(site, x, y);
+                double area = diagram.teamArea(player.team);
                 
                 // If this position is better, remember it
                 if (area > maxArea) {
@@ -103,134 +87,114 @@ public class VoronoiInspiredStrategy extends SoccerStrategy {
                     bestDx = dx;
                     bestDy = dy;
                 }
-                // Restore original position
-                player.x = originalX;
-                player.y = originalY;
             }
         }
+        diagram.move(site, originalX, originalY);
         if (bestDx != 0 || bestDy != 0) {
             simulation.movePlayer(player, bestDx, bestDy);
+            diagram.move(site, player.x, player.y);
         }
     }
     
+    // Diagram of the given players clipped to the area the strategy plays for, rebuilt in
+    // the simulation's reusable diagram
+    private static VoronoiDiagram buildDiagram(SoccerSimulation simulation, List<Vertex> teammates, List<Vertex> opponents) {
+        VoronoiDiagram diagram = simulation.getVoronoiDiagram(-100, -simulation.bound, 100, simulation.bound);
+        diagram.build(teammates, opponents);
+        return diagram;
+    }
+    
     /**
      * Calculate the Voronoi area controlled by the team
      */
-    private double calculateVoronoiArea(SoccerSimulation simulation, Vertex player, 
+    double calculateVoronoiArea(SoccerSimulation simulation, Vertex player, 
                                        List<Vertex> teammates, List<Vertex> opponents) {
-        // Simple approximation of Voronoi area - count cells closer to team players than opponents
-        double totalArea = 0;
-        int fieldWidth = 100 * 2;
-        double fieldHeight = simulation.bound * 2;
-        int sampleSize = 20; // Number of sample points to check
-        
-        // Create a list of all players
-        List<Vertex> teamPlayers = new ArrayList<>(teammates);
-        
-        // Sample points in the field to estimate Voronoi area
-        for (int i = 0; i < sampleSize; i++) {
-            for (int j = 0; j < sampleSize; j++) {
-                // Calculate sample point coordinates
-                double x = -100 + (fieldWidth * i / (double) sampleSize);
-                double y = -simulation.bound + (fieldHeight * j / sampleSize);
-                
-                // Find closest player to this point
-                Vertex closestPlayer = null;
-                double minDistance = Double.MAX_VALUE;
-                
-                // Check team players
-                for (Vertex teammate : teamPlayers) {
-                    double distance = Math.sqrt(
-                        (x-teammate.x)*(x-teammate.x) 
-                        + (y-teammate.y)*(y-teammate.y)
-                    );
-                    if (distance < minDistance) {
-                        minDistance = distance;
-                        closestPlayer = teammate;
-                    }
-                }
-                // Check opponent players
-                for (Vertex opponent : opponents) {
-                    double distance =Math.sqrt(
-                        (x-opponent.x)*(x-opponent.x) 
-                        + (y-opponent.y)*(y-opponent.y)
-                    );
-                    if (distance < minDistance) {
-                        minDistance = distance;
-                        closestPlayer = opponent;
-                    }
-                }
-                // If closest player is from our team, add to area
-                if (closestPlayer != null && closestPlayer.team == player.team) {
-                    totalArea += 1.0;
-                }
-            }
-        }// Normalize the area
-        return totalArea / (sampleSize * sampleSize);
+        // Exact share of the field closer to the player's team than to any opponent. A diagram
+        // already in step with the positions, built here or kept so by execute, is used as is
+        VoronoiDiagram diagram = simulation.getVoronoiDiagram(-100, -simulation.bound, 100, simulation.bound);
+        long positions = simulation.getPositionVersion();
+        if (!diagram.isCurrent(teammates, opponents, positions)) {
+            diagram.build(teammates, opponents);
+            diagram.markCurrent(positions);
+        }
+        return diagram.teamArea(player.team);
     }
     
     @Override
     protected String determineAction(SoccerSimulation simulation, Vertex ballController, 
                                    List<Vertex> teammates, List<Vertex> opponents) {
-        // Check if there are adjacent opponents
-        List<Vertex> adjacentOpponents = simulation.getAdjacentOpponents(ballController);
+        return decideAction(simulation, ballController, teammates, opponents).label;
+    }
+
+    @Override
+    protected Action decideAction(SoccerSimulation simulation, Vertex ballController, 
+                                  List<Vertex> teammates, List<Vertex> opponents) {
+        double distanceToGoal = simulation.distanceToOpponentGoal(ballController);
         
         // If we're close to goal and have a clear shot, try to shoot
-        if (simulation.distanceToOpponentGoal(ballController) < SoccerSimulation.penaltyAreaDistance * 0.8) {
-            double shootProb = 1.0 / (simulation.distanceToOpponentGoal(ballController) * 
+        if (distanceToGoal < SoccerSimulation.penaltyAreaDistance * 0.8) {
+            double shootProb = 1.0 / (distanceToGoal * 
                                     simulation.countOpponentsInPenaltyArea(ballController.team));
             if (shootProb > 0.3) {
-                return "shoot";
+                return Action.SHOOT;
             }
         }
-        if (!adjacentOpponents.isEmpty()) {
+        if (simulation.hasAdjacentOpponents(ballController)) {
             // In Voronoi strategy, we prefer passing over breakthrough
             // but will attempt breakthrough if no good passing options
-            Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-            if (target != null) {
-                return "pass";
+            if (passTargetSlot(simulation, ballController, teammates, opponents) >= 0) {
+                return Action.PASS;
             } else {
-                return "breakthrough";
+                return Action.BREAKTHROUGH;
             }
         }
         // If we have a good passing option
-        Vertex target = findBestPassTarget(simulation, ballController, teammates, opponents);
-        if (target != null) {
-            return "pass";
+        if (passTargetSlot(simulation, ballController, teammates, opponents) >= 0) {
+            return Action.PASS;
         }
         // If close to goal and no good passing options
-        if (simulation.distanceToOpponentGoal(ballController) < SoccerSimulation.penaltyAreaDistance * 1.2) {
-            return "shoot";
+        if (distanceToGoal < SoccerSimulation.penaltyAreaDistance * 1.2) {
+            return Action.SHOOT;
         }
-        return "move";// Otherwise, move forward
+        return Action.MOVE;// Otherwise, move forward
     }
 
     @Override
     protected Vertex findBestPassTarget(SoccerSimulation simulation, Vertex ballController, 
                                       List<Vertex> teammates, List<Vertex> opponents) {
-        // In Voronoi strategy, we prefer passes that maximize our team's control area
-        return teammates.stream()
-            .filter(p -> p != ballController)
-            .filter(p -> simulation.canPass(ballController, p))
-            .min(Comparator.comparingDouble(p -> {
-                // Calculate social radius and count
-                double socialRadius = SoccerUtil.calculateSocialRadius(ballController, p);
-                int socialCount = SoccerUtil.countOpponentsInSocialRadius(p, opponents, socialRadius);
-                
-                // Calculate pass success probability
-                double successProb = SoccerUtil.calculatePassSuccessProbability(socialCount);
-                
-                // Return a score (lower is better)
-                // We consider: distance to goal, social count, and area control
-                double distanceToGoal = simulation.distanceToOpponentGoal(p);
-                double areaControl = 1.0 - calculateVoronoiArea(simulation, p, teammates, opponents);
-                
-                // If pass has zero probability of success, return infinity
-                if (successProb == 0.0) {
-                    return Double.POSITIVE_INFINITY;
-                }
-                return distanceToGoal + socialCount * 50 + areaControl * 100;
-            }))
-            .orElse(null);
+        return simulation.getPlayer(findPassTargetSlot(simulation, ballController, teammates, opponents));
+    }
+
+    @Override
+    protected int findPassTargetSlot(SoccerSimulation simulation, Vertex ballController, 
+                                     List<Vertex> teammates, List<Vertex> opponents) {
+        // In Voronoi strategy, we prefer passes that maximize our team's control area.
+        // The area depends only on the team, so it is the same for every candidate
+        double areaControl = 1.0 - calculateVoronoiArea(simulation, ballController, teammates, opponents);
+        int best = -1;
+        double bestScore = 0;
+        for (int i = 0; i < teammates.size(); i++) {
+            Vertex p = teammates.get(i);
+            if (p == ballController || !simulation.canPass(ballController, p)) {
+                continue;
+            }
+            // Calculate social radius and count
+            double socialRadius = SoccerUtil.calculateSocialRadius(ballController, p);
+            int socialCount = SoccerUtil.countOpponentsInSocialRadius(p, opponents, socialRadius);
+            
+            // Calculate pass success probability
+            double successProb = SoccerUtil.calculatePassSuccessProbability(socialCount);
+            
+            // Score (lower is better): distance to goal, social count, and area control,
+            // or infinity if the pass has zero probability of success
+            double score = successProb == 0.0
+                ? Double.POSITIVE_INFINITY
+                : simulation.distanceToOpponentGoal(p) + socialCount * 50 + areaControl * 100;
+            if (best < 0 || Double.compare(score, bestScore) < 0) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best >= 0 ? simulation.slotOf(teammates.get(best)) : -1;
     }
 }
\ No newline at end of file